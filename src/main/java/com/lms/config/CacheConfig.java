@@ -0,0 +1,42 @@
+package com.lms.config;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+
+/**
+ * Publishes hit, miss, put, eviction and removal counts for every Hibernate
+ * second-level cache region (see ehcache.xml) as {@code cache.*} meters tagged
+ * with the region name.
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache()
+                .getRegionFactory();
+            if (!(regionFactory instanceof JCacheRegionFactory jcacheRegionFactory)) {
+                return;
+            }
+            CacheManager cacheManager = jcacheRegionFactory.getCacheManager();
+            for (String name : cacheManager.getCacheNames()) {
+                // JCacheMetrics reads the JSR-107 statistics MBean, which is off by default
+                cacheManager.enableStatistics(name, true);
+                Cache<Object, Object> cache = cacheManager.getCache(name);
+                JCacheMetrics.monitor(registry, cache, Tags.of("layer", "hibernate-l2"));
+            }
+        };
+    }
+}
@@ -2,10 +2,16 @@ package com.lms.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.sql.DataSource;
 
@@ -21,27 +27,91 @@ public class DatabaseConfig {
     @Value("${spring.datasource.password}")
     private String password;
 
+    @Value("${spring.datasource.hikari.maximum-pool-size:20}")
+    private int maximumPoolSize;
+
+    // Optional read replica; read-only transactions use the primary while unset
+    @Value("${spring.datasource.replica.url:}")
+    private String replicaUrl;
+
+    @Value("${spring.datasource.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${spring.datasource.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${spring.datasource.replica.connection-timeout:2000}")
+    private long replicaConnectionTimeout;
+
+    @Value("${spring.datasource.replica.max-lag-seconds:10}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${spring.datasource.replica.fallback-to-primary:true}")
+    private boolean replicaFallbackToPrimary;
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource() {
+        HikariDataSource primary = pool("LMSHikariCP", dataSourceUrl, username, password, false);
+        HikariDataSource replica = replicaUrl.isBlank()
+            ? null
+            : pool("LMSHikariCP-replica", replicaUrl, replicaUsername, replicaPassword, true);
+        return new ReplicaRoutingDataSource(primary, replica, replicaMaxLagSeconds, replicaFallbackToPrimary);
+    }
+
+    // The lazy proxy holds back the physical connection until the first statement,
+    // by which time the transaction's read-only flag is known to the router
     @Bean
     @Primary
-    public DataSource dataSource() {
+    public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    // Replaces Boot's JpaTransactionManager so replica reads stay out of the L2 and query caches
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ReplicaRoutingDataSource routingDataSource) {
+        return new ReplicaAwareTransactionManager(entityManagerFactory, routingDataSource);
+    }
+
+    // Feeds SqlStatementStats: every prepared statement's shape and every execution's duration
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementTracking() {
+        StatementInspector inspector = sql -> {
+            SqlStatementStats.prepared(sql);
+            return sql;
+        };
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlTimingListener.class.getName());
+        };
+    }
+
+    private HikariDataSource pool(String poolName, String url, String user, String pass, boolean readOnly) {
         HikariConfig config = new HikariConfig();
-        config.setJdbcUrl(dataSourceUrl);
-        config.setUsername(username);
-        config.setPassword(password);
+        config.setJdbcUrl(url);
+        config.setUsername(user);
+        config.setPassword(pass);
         config.setDriverClassName("com.mysql.cj.jdbc.Driver");
-        
+
         // Connection pool settings
-        config.setPoolName("LMSHikariCP");
+        config.setPoolName(poolName);
         config.setMinimumIdle(5);
-        config.setMaximumPoolSize(20);
+        config.setMaximumPoolSize(maximumPoolSize);
         config.setIdleTimeout(300000); // 5 minutes
         config.setMaxLifetime(1200000); // 20 minutes
         config.setConnectionTimeout(20000); // 20 seconds
-        
+
         // Connection testing
         config.setConnectionTestQuery("SELECT 1");
         config.setValidationTimeout(5000); // 5 seconds
-        
+
+        if (readOnly) {
+            // Fail fast so reads can fall back, and let the app start while the replica is down
+            config.setReadOnly(true);
+            config.setConnectionTimeout(replicaConnectionTimeout);
+            config.setInitializationFailTimeout(-1);
+        }
+
         return new HikariDataSource(config);
     }
 }
@@ -0,0 +1,54 @@
+package com.lms.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves every id block table past the highest id already in its entity table,
+ * so the pooled-lo generators never hand out an id that rows created under the
+ * old AUTO_INCREMENT scheme (or restored from a dump) already use.
+ *
+ * <p>Runs during startup, after Hibernate has created or updated the schema and
+ * before the web server takes requests.
+ */
+@Component
+public class IdBlockAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdBlockAligner.class);
+
+    // Block table -> entity table
+    private static final Map<String, String> SEQUENCES = Map.of(
+        "users_seq", "users",
+        "courses_seq", "courses",
+        "enrollments_seq", "enrollments",
+        "assignments_seq", "assignments",
+        "assignment_submissions_seq", "assignment_submissions",
+        "books_seq", "books");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The EntityManagerFactory parameter only orders this after schema creation
+    public IdBlockAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void align() {
+        SEQUENCES.forEach((sequence, table) -> {
+            jdbcTemplate.update("INSERT INTO " + sequence + " (next_val) SELECT 1 FROM DUAL " +
+                "WHERE NOT EXISTS (SELECT 1 FROM " + sequence + ")");
+            int moved = jdbcTemplate.update("UPDATE " + sequence + " SET next_val = " +
+                "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + ") " +
+                "WHERE next_val <= (SELECT COALESCE(MAX(id), 0) FROM " + table + ")");
+            if (moved > 0) {
+                logger.info("Advanced id block table {} past existing rows in {}", sequence, table);
+            }
+        });
+    }
+}
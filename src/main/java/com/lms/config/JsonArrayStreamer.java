@@ -0,0 +1,52 @@
+package com.lms.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.service.RowSink;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+
+/**
+ * Writes an unbounded listing as a JSON array, one element at a time, so
+ * neither the rows nor the rendered body are ever held in memory as a whole.
+ *
+ * <p>The body is written on an MVC async thread after the handler returns.
+ * The row source should read in short keyset windows rather than hold a
+ * cursor open, since a slow client can keep the writes blocked for as long
+ * as the async request timeout allows.
+ * Once the first bytes are out an error can only abort the response, so
+ * clients see a truncated array rather than an error body.
+ */
+@Component
+public class JsonArrayStreamer {
+
+    @FunctionalInterface
+    public interface RowSource<T> {
+        void forEach(RowSink<T> sink) throws IOException;
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public JsonArrayStreamer(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public <T> ResponseEntity<StreamingResponseBody> stream(RowSource<T> source) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                // The container owns the response stream
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.writeStartArray();
+                source.forEach(generator::writeObject);
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(body);
+    }
+}
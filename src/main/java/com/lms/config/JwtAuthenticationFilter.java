@@ -1,6 +1,9 @@
 package com.lms.config;
 
+import com.lms.model.User;
 import com.lms.service.JwtService;
+import com.lms.service.SecurityVersionCache;
+import com.lms.service.VerifiedToken;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
@@ -11,6 +14,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -31,6 +35,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private SecurityVersionCache securityVersionCache;
+
+    // When enabled, the principal is built from signed claims instead of a user lookup
+    @Value("${jwt.claims-auth.enabled:true}")
+    private boolean claimsAuthEnabled;
+
+    // Logout handles its own token, which may already be expired or revoked
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "/api/auth/logout".equals(request.getServletPath());
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                   HttpServletResponse response, 
@@ -40,10 +57,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = extractJwtFromRequest(request);
             if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                String username = jwtService.extractUsername(jwt);
-                if (username != null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    if (jwtService.validateToken(jwt, userDetails.getUsername())) {
+                // Signature and expiry are checked once here; invalid tokens throw below
+                VerifiedToken token = jwtService.verify(jwt);
+                if (jwtService.isRevoked(token)) {
+                    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                    response.getWriter().write("Token has been revoked");
+                    return;
+                }
+                if (token.getSubject() != null) {
+                    if (claimsAuthEnabled && token.getUserId() != null && token.getRole() != null) {
+                        if (!securityVersionCache.isCurrent(token.getUserId(), token.getSecurityVersion())) {
+                            logger.debug("Rejecting token for {} with stale security version", token.getSubject());
+                            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                            response.getWriter().write("Token is no longer valid");
+                            return;
+                        }
+                        authenticateUser(new AuthenticatedUser(
+                            token.getUserId(), token.getSubject(), User.Role.valueOf(token.getRole())), request);
+                    } else {
+                        UserDetails userDetails = userDetailsService.loadUserByUsername(token.getSubject());
                         authenticateUser(userDetails, request);
                     }
                 }
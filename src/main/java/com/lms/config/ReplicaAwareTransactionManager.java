@@ -0,0 +1,40 @@
+package com.lms.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Read-only transactions may run on the replica, which can be several seconds
+ * behind the primary. Rows read there must not end up in the second-level or
+ * query cache, where read-write transactions on the primary would pick them up
+ * long after the replica has caught up. Such sessions still read from the
+ * caches but never put into them.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    public ReplicaAwareTransactionManager(EntityManagerFactory entityManagerFactory,
+                                          ReplicaRoutingDataSource routingDataSource) {
+        super(entityManagerFactory);
+        this.routingDataSource = routingDataSource;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        if (!definition.isReadOnly() || !routingDataSource.isReplicaConfigured()) {
+            return;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder)
+            TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder != null) {
+            holder.getEntityManager().unwrap(Session.class).setCacheMode(CacheMode.GET);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.lms.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the
+ * primary. While the replica is down or lagging more than {@code maxLagSeconds}
+ * behind, read-only work falls back to the primary unless fallback is disabled.
+ *
+ * <p>The read-only flag is only set once the transaction has begun, so this
+ * must sit behind a {@code LazyConnectionDataSourceProxy} that defers the real
+ * connection until the first statement (see {@link DatabaseConfig}).
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final long maxLagSeconds;
+    private final boolean fallbackToPrimary;
+
+    // Replica stays unused until the first health check has passed
+    private volatile boolean replicaUsable;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica,
+                                    long maxLagSeconds, boolean fallbackToPrimary) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagSeconds = maxLagSeconds;
+        this.fallbackToPrimary = fallbackToPrimary;
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(replica == null
+            ? Map.of(Target.PRIMARY, primary)
+            : Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replica != null
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && (replicaUsable || !fallbackToPrimary)) {
+            return Target.REPLICA;
+        }
+        return Target.PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() != Target.REPLICA) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            if (!fallbackToPrimary) {
+                throw e;
+            }
+            markReplicaDown("connection failed: " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Re-checks replication lag. A server that reports no replication status is
+     * treated as a standalone copy with no lag, which is what a second local
+     * instance looks like in development.
+     */
+    @Scheduled(fixedDelayString = "${spring.datasource.replica.health-check-interval:5000}")
+    public void checkReplica() {
+        if (replica == null) {
+            return;
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement()) {
+            Long lag = replicationLag(statement);
+            if (lag == null) {
+                markReplicaDown("replication is not running");
+            } else if (lag > maxLagSeconds) {
+                markReplicaDown("replica is " + lag + "s behind");
+            } else if (!replicaUsable) {
+                replicaUsable = true;
+                logger.info("Routing read-only transactions to the replica (lag {}s)", lag);
+            }
+        } catch (SQLException e) {
+            markReplicaDown("health check failed: " + e.getMessage());
+        }
+    }
+
+    public boolean isReplicaConfigured() {
+        return replica != null;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Override
+    public void close() {
+        if (replica != null) {
+            replica.close();
+        }
+        primary.close();
+    }
+
+    private void markReplicaDown(String reason) {
+        if (replicaUsable) {
+            logger.warn("Replica unavailable ({}), read-only transactions {}", reason,
+                fallbackToPrimary ? "fall back to the primary" : "keep using the replica");
+        } else {
+            logger.debug("Replica still unavailable ({})", reason);
+        }
+        replicaUsable = false;
+    }
+
+    // Seconds behind the source, 0 for a standalone server, null if replication is stopped
+    private static Long replicationLag(Statement statement) throws SQLException {
+        ResultSet status;
+        String column;
+        try {
+            status = statement.executeQuery("SHOW REPLICA STATUS");
+            column = "Seconds_Behind_Source";
+        } catch (SQLException e) {
+            // Servers before MySQL 8.0.22
+            status = statement.executeQuery("SHOW SLAVE STATUS");
+            column = "Seconds_Behind_Master";
+        }
+        try (ResultSet rs = status) {
+            if (!rs.next()) {
+                return 0L;
+            }
+            long lag = rs.getLong(column);
+            return rs.wasNull() ? null : lag;
+        }
+    }
+}
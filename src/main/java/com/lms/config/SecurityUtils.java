@@ -1,29 +1,70 @@
 package com.lms.config;
 
+import com.lms.repository.AssignmentRepository;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.SubmissionRepository;
+import com.lms.repository.UserRepository;
+import com.lms.service.AuthorizationCache;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+
+// Read-write on purpose: ownership checks go to the primary, so an enrollment or
+// submission is visible to them as soon as it commits, not once the replica catches up
 @Component
+@Transactional
 public class SecurityUtils {
 
+    private static final String DECISIONS_ATTRIBUTE = SecurityUtils.class.getName() + ".DECISIONS";
+    private static final String USER_ID_ATTRIBUTE = SecurityUtils.class.getName() + ".USER_ID";
+
+    private final CourseRepository courseRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final SubmissionRepository submissionRepository;
+    private final UserRepository userRepository;
+    private final AuthorizationCache authorizationCache;
+
+    public SecurityUtils(CourseRepository courseRepository,
+                         AssignmentRepository assignmentRepository,
+                         EnrollmentRepository enrollmentRepository,
+                         SubmissionRepository submissionRepository,
+                         UserRepository userRepository,
+                         AuthorizationCache authorizationCache) {
+        this.courseRepository = courseRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.submissionRepository = submissionRepository;
+        this.userRepository = userRepository;
+        this.authorizationCache = authorizationCache;
+    }
+
     public static String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null) {
             return null;
         }
-        
+
         if (authentication.getPrincipal() instanceof UserDetails) {
             return ((UserDetails) authentication.getPrincipal()).getUsername();
         }
-        
+
         return authentication.getName();
     }
 
     public static boolean hasRole(String role) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        return authentication != null && 
+        return authentication != null &&
                authentication.getAuthorities().stream()
                    .anyMatch(a -> a.getAuthority().equals("ROLE_" + role));
     }
@@ -41,6 +82,112 @@ public class SecurityUtils {
     }
 
     public static boolean canAccessResource(String username) {
-        return isAdmin() || getCurrentUsername().equals(username);
+        return isAdmin() || username.equals(getCurrentUsername());
+    }
+
+    public boolean canAccessResource(Long userId) {
+        return isAdmin() || userId.equals(getCurrentUserId());
+    }
+
+    // Ownership checks used from @PreAuthorize. Each is a single boolean query,
+    // memoized for the request and cached briefly per (user, resource).
+
+    public boolean isInstructorOfCourse(Long courseId) {
+        return decide("instructorOfCourse", courseId,
+            userId -> courseRepository.isInstructorOfCourse(courseId, userId));
+    }
+
+    public boolean canAccessCourse(Long courseId) {
+        if (isAdmin()) {
+            return true;
+        }
+        return decide("accessCourse", courseId,
+            userId -> courseRepository.canAccessCourse(courseId, userId));
+    }
+
+    public boolean isInstructorOfAssignment(Long assignmentId) {
+        return decide("instructorOfAssignment", assignmentId,
+            userId -> assignmentRepository.isInstructorOfAssignment(assignmentId, userId));
+    }
+
+    public boolean canSubmitToAssignment(Long assignmentId) {
+        return decide("submitToAssignment", assignmentId,
+            userId -> enrollmentRepository.isEnrolledForAssignment(assignmentId, userId));
+    }
+
+    public boolean canAccessSubmission(Long submissionId) {
+        if (isAdmin()) {
+            return true;
+        }
+        return decide("accessSubmission", submissionId,
+            userId -> submissionRepository.canAccessSubmission(submissionId, userId));
+    }
+
+    public boolean isInstructorOfSubmission(Long submissionId) {
+        return decide("instructorOfSubmission", submissionId,
+            userId -> submissionRepository.isInstructorOfSubmission(submissionId, userId));
+    }
+
+    public Long getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.getId();
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(USER_ID_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof Long) {
+                return (Long) cached;
+            }
+        }
+        Long userId = userRepository.findIdByUsername(getCurrentUsername()).orElse(null);
+        if (attributes != null && userId != null) {
+            attributes.setAttribute(USER_ID_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        }
+        return userId;
+    }
+
+    private boolean decide(String check, Long resourceId, Predicate<Long> query) {
+        if (resourceId == null) {
+            return false;
+        }
+        Long userId = getCurrentUserId();
+        if (userId == null) {
+            return false;
+        }
+
+        Map<String, Boolean> requestDecisions = requestDecisions();
+        String key = check + ':' + resourceId;
+        if (requestDecisions != null) {
+            Boolean memoized = requestDecisions.get(key);
+            if (memoized != null) {
+                return memoized;
+            }
+        }
+
+        BooleanSupplier loader = () -> query.test(userId);
+        boolean allowed = authorizationCache.get(userId, check, resourceId, loader);
+        if (requestDecisions != null) {
+            requestDecisions.put(key, allowed);
+        }
+        return allowed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Boolean> requestDecisions() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        Object decisions = attributes.getAttribute(DECISIONS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (decisions == null) {
+            decisions = new HashMap<String, Boolean>();
+            attributes.setAttribute(DECISIONS_ATTRIBUTE, decisions, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<String, Boolean>) decisions;
     }
 }
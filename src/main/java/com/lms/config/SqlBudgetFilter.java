@@ -0,0 +1,146 @@
+package com.lms.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the SQL statements each HTTP request issues, records them per URI
+ * pattern as {@code lms.sql.*} meters and warns when a request goes over the
+ * statement budget or prepares the same query shape more often than
+ * {@code sql.budget.max-repeats} (the usual sign of an N+1 loop).
+ *
+ * <p>The counts so far are also sent as {@code X-SQL-Statements} and
+ * {@code X-SQL-Time-Ms} headers. Headers have to go out before the body, so
+ * they miss anything issued after the response starts streaming; the meters
+ * and the warning cover the whole request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetFilter.class);
+
+    static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final boolean headers;
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    public SqlBudgetFilter(MeterRegistry meterRegistry,
+                           @Value("${sql.budget.enabled:true}") boolean enabled,
+                           @Value("${sql.budget.headers:true}") boolean headers,
+                           @Value("${sql.budget.max-statements:30}") int maxStatements,
+                           @Value("${sql.budget.max-repeats:5}") int maxRepeats) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.headers = headers;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            if (!headers) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            StatsHeaderResponse wrapped = new StatsHeaderResponse(response, stats);
+            filterChain.doFilter(request, wrapped);
+            // Short bodies are only committed by the container after the chain returns
+            if (!response.isCommitted()) {
+                wrapped.writeHeaders();
+            }
+        } finally {
+            stats.stop();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats) {
+        if (stats.getStatements() == 0 && stats.getShapes().isEmpty()) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMAPPED";
+
+        DistributionSummary.builder("lms.sql.statements")
+            .description("JDBC statements per HTTP request")
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(stats.getStatements());
+        Timer.builder("lms.sql.time")
+            .description("Time spent executing JDBC statements per HTTP request")
+            .tag("uri", uri)
+            .register(meterRegistry)
+            .record(stats.getElapsedNanos(), TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> mostRepeated = stats.getMostRepeated();
+        boolean overBudget = stats.getStatements() > maxStatements;
+        boolean repeated = mostRepeated != null && mostRepeated.getValue() > maxRepeats;
+        if (!overBudget && !repeated) {
+            return;
+        }
+        Counter.builder("lms.sql.budget.exceeded")
+            .tag("uri", uri)
+            .tag("reason", repeated ? "repeated-query" : "statement-count")
+            .register(meterRegistry)
+            .increment();
+        logger.warn("{} {} ran {} SQL statements in {} ms (budget {}); most repeated, {} times: {}",
+            request.getMethod(), uri, stats.getStatements(),
+            TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos()), maxStatements,
+            mostRepeated != null ? mostRepeated.getValue() : 0,
+            mostRepeated != null ? mostRepeated.getKey() : "-");
+    }
+
+    // Adds the counts as headers just before the response is committed
+    private static final class StatsHeaderResponse extends OnCommittedResponseWrapper {
+
+        private final SqlStatementStats stats;
+
+        StatsHeaderResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        void writeHeaders() {
+            setHeader(STATEMENTS_HEADER, Integer.toString(stats.getStatements()));
+            setHeader(TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos())));
+        }
+    }
+}
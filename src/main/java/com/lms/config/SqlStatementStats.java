@@ -0,0 +1,182 @@
+package com.lms.config;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC statements issued by Hibernate on the current thread while tracking is
+ * on: how many ran, how long they took and how often each query shape was
+ * prepared. {@link SqlBudgetFilter} tracks every HTTP request; tests can pin a
+ * code path's query count the same way:
+ *
+ * <pre>
+ * SqlStatementStats stats = SqlStatementStats.start();
+ * try {
+ *     courseService.findActiveCourses();
+ * } finally {
+ *     stats.stop();
+ * }
+ * stats.expectAtMost(1).expectNoRepeatsOver(1);
+ * </pre>
+ *
+ * Trackers nest: statements count towards every tracker that is open on the
+ * thread, so a test tracker around a MockMvc call sees the request's statements
+ * too. Work handed to other threads is only counted when the task is wrapped
+ * with {@link #propagate}, as the dashboard sections are; counters are safe to
+ * update from several threads at once.
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    // "IN (?, ?, ?)" and "IN (?)" are the same shape
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlStatementStats parent;
+    private final Map<String, Integer> shapes = new ConcurrentHashMap<>();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong elapsedNanos = new AtomicLong();
+    private boolean stopped;
+
+    private SqlStatementStats(SqlStatementStats parent) {
+        this.parent = parent;
+    }
+
+    public static SqlStatementStats start() {
+        SqlStatementStats stats = new SqlStatementStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stops tracking and restores whichever tracker was open before this one.
+     */
+    public SqlStatementStats stop() {
+        if (!stopped) {
+            stopped = true;
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Wraps a task so that statements it runs on a pool thread count towards
+     * the trackers open on the thread that submits it. Matches Spring's
+     * {@code TaskDecorator}. Without an open tracker the task is returned as is.
+     */
+    public static Runnable propagate(Runnable task) {
+        SqlStatementStats captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementStats previous = install(captured);
+            try {
+                task.run();
+            } finally {
+                install(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        SqlStatementStats captured = CURRENT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementStats previous = install(captured);
+            try {
+                return task.call();
+            } finally {
+                install(previous);
+            }
+        };
+    }
+
+    private static SqlStatementStats install(SqlStatementStats stats) {
+        SqlStatementStats previous = CURRENT.get();
+        if (stats == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(stats);
+        }
+        return previous;
+    }
+
+    static void prepared(String sql) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        String shape = shapeOf(sql);
+        for (SqlStatementStats s = stats; s != null; s = s.parent) {
+            s.shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static void executed(long nanos) {
+        for (SqlStatementStats s = CURRENT.get(); s != null; s = s.parent) {
+            s.statements.incrementAndGet();
+            s.elapsedNanos.addAndGet(nanos);
+        }
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos.get();
+    }
+
+    public Map<String, Integer> getShapes() {
+        return shapes;
+    }
+
+    /**
+     * The query shape prepared most often, or null if nothing ran.
+     */
+    public Map.Entry<String, Integer> getMostRepeated() {
+        Map.Entry<String, Integer> most = null;
+        for (Map.Entry<String, Integer> entry : shapes.entrySet()) {
+            if (most == null || entry.getValue() > most.getValue()) {
+                most = entry;
+            }
+        }
+        return most;
+    }
+
+    // Assertions for tests that pin a query count
+
+    public SqlStatementStats expectAtMost(int maxStatements) {
+        int ran = getStatements();
+        if (ran > maxStatements) {
+            throw new AssertionError("Expected at most " + maxStatements + " SQL statements but "
+                + ran + " ran: " + shapes);
+        }
+        return this;
+    }
+
+    public SqlStatementStats expectNoRepeatsOver(int maxRepeats) {
+        Map.Entry<String, Integer> most = getMostRepeated();
+        if (most != null && most.getValue() > maxRepeats) {
+            throw new AssertionError("Query ran " + most.getValue() + " times (N+1?): " + most.getKey());
+        }
+        return this;
+    }
+
+    private static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return PARAMETER_LIST.matcher(shape).replaceAll("?");
+    }
+}
@@ -0,0 +1,32 @@
+package com.lms.config;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Times each JDBC execution (single statement or batch) of a Hibernate session
+ * into the thread's {@link SqlStatementStats}. Hibernate creates one per session.
+ */
+public class SqlTimingListener implements SessionEventListener {
+
+    private long startedAt;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementStats.executed(System.nanoTime() - startedAt);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        startedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementStats.executed(System.nanoTime() - startedAt);
+    }
+}
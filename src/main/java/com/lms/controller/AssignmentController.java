@@ -1,6 +1,8 @@
 package com.lms.controller;
 
 import com.lms.dto.AssignmentRequest;
+import com.lms.dto.AssignmentView;
+import com.lms.dto.CursorSlice;
 import com.lms.model.Assignment;
 import com.lms.service.AssignmentService;
 import jakarta.validation.Valid;
@@ -26,15 +28,24 @@ public class AssignmentController {
 
     @GetMapping
     @PreAuthorize("@securityUtils.canAccessCourse(#courseId)")
-    public ResponseEntity<Page<Assignment>> getCourseAssignments(
+    public ResponseEntity<Page<AssignmentView>> getCourseAssignments(
             @PathVariable Long courseId, 
             Pageable pageable) {
         return ResponseEntity.ok(assignmentService.getCourseAssignments(courseId, pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("@securityUtils.canAccessCourse(#courseId)")
+    public ResponseEntity<CursorSlice<AssignmentView>> scrollCourseAssignments(
+            @PathVariable Long courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(assignmentService.scrollCourseAssignments(courseId, cursor, size));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#courseId)")
-    public ResponseEntity<Assignment> createAssignment(
+    public ResponseEntity<AssignmentView> createAssignment(
             @PathVariable Long courseId,
             @Valid @RequestBody AssignmentRequest request) {
         Assignment assignment = Assignment.builder()
@@ -49,7 +60,7 @@ public class AssignmentController {
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfAssignment(#id)")
-    public ResponseEntity<Assignment> updateAssignment(
+    public ResponseEntity<AssignmentView> updateAssignment(
             @PathVariable Long courseId,
             @PathVariable Long id,
             @Valid @RequestBody AssignmentRequest request) {
@@ -74,7 +85,7 @@ public class AssignmentController {
 
     @GetMapping("/upcoming")
     @PreAuthorize("@securityUtils.canAccessCourse(#courseId)")
-    public ResponseEntity<List<Assignment>> getUpcomingAssignments(
+    public ResponseEntity<List<AssignmentView>> getUpcomingAssignments(
             @PathVariable Long courseId) {
         return ResponseEntity.ok(assignmentService.getUpcomingAssignments(courseId));
     }
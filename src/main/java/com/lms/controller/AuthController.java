@@ -3,10 +3,15 @@ package com.lms.controller;
 import com.lms.dto.AuthRequest;
 import com.lms.dto.AuthResponse;
 import com.lms.dto.RegisterRequest;
+import com.lms.dto.UserSummary;
 import com.lms.model.User;
+import com.lms.service.JwtService;
+import com.lms.service.LoginThrottle;
 import com.lms.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,20 +20,32 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final UserService userService;
+    private final JwtService jwtService;
+    private final LoginThrottle loginThrottle;
+
+    // Only enable behind a proxy that overwrites X-Forwarded-For, otherwise clients can spoof it
+    @Value("${login.throttle.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
 
     @Autowired
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, JwtService jwtService, LoginThrottle loginThrottle) {
         this.userService = userService;
+        this.jwtService = jwtService;
+        this.loginThrottle = loginThrottle;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody AuthRequest request,
+                                              HttpServletRequest httpRequest) {
+        // Throttle before the password check so rejected attempts never reach BCrypt
+        loginThrottle.checkLoginAttempt(request.getUsername(), clientIp(httpRequest));
         String token = userService.authenticateUser(request.getUsername(), request.getPassword());
+        loginThrottle.loginSucceeded(request.getUsername());
         return ResponseEntity.ok(new AuthResponse(token));
     }
 
     @PostMapping("/register")
-    public ResponseEntity<User> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<UserSummary> register(@Valid @RequestBody RegisterRequest request) {
         User user = User.builder()
             .username(request.getUsername())
             .password(request.getPassword())
@@ -38,12 +55,26 @@ public class AuthController {
             .role(User.Role.STUDENT) // Default role
             .build();
             
-        return ResponseEntity.ok(userService.registerUser(user));
+        return ResponseEntity.ok(UserSummary.from(userService.registerUser(user)));
     }
 
     @PostMapping("/logout")
     public ResponseEntity<Void> logout(@RequestHeader("Authorization") String token) {
-        // JWT is stateless, but we can blacklist the token if needed
-        return ResponseEntity.ok().build();
+        // Revoke the token's id until it would have expired anyway
+        if (token.startsWith("Bearer ")) {
+            jwtService.revokeToken(token.substring(7));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma > 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return request.getRemoteAddr();
     }
 }
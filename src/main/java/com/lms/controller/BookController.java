@@ -1,38 +1,41 @@
 package com.lms.controller;
 
+import com.lms.config.JsonArrayStreamer;
+import com.lms.dto.BookView;
 import com.lms.model.Book;
 import com.lms.service.BookService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/books")
 public class BookController {
 
     private final BookService bookService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, JsonArrayStreamer jsonArrayStreamer) {
         this.bookService = bookService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
     }
 
     @GetMapping
-    public List<Book> getAllBooks() {
-        return bookService.getAllBooks();
+    public ResponseEntity<StreamingResponseBody> getAllBooks() {
+        return jsonArrayStreamer.stream(bookService::streamAllBooks);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookView> getBookById(@PathVariable Long id) {
         return bookService.getBookById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Book createBook(@RequestBody Book book) {
+    public BookView createBook(@RequestBody Book book) {
         return bookService.saveBook(book);
     }
 
@@ -1,47 +1,67 @@
 package com.lms.controller;
 
 import com.lms.dto.CourseRequest;
+import com.lms.dto.CourseView;
+import com.lms.dto.CursorSlice;
+import com.lms.dto.EnrollmentView;
+import com.lms.dto.RosterEntry;
+import com.lms.dto.RosterImportResult;
 import com.lms.model.Course;
-import com.lms.model.Enrollment;
 import com.lms.service.CourseService;
+import com.lms.service.RosterImportService;
 import com.lms.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/courses")
 public class CourseController {
 
     private final CourseService courseService;
     private final UserService userService;
+    private final RosterImportService rosterImportService;
 
     @Autowired
-    public CourseController(CourseService courseService, UserService userService) {
+    public CourseController(CourseService courseService,
+                            UserService userService,
+                            RosterImportService rosterImportService) {
         this.courseService = courseService;
         this.userService = userService;
+        this.rosterImportService = rosterImportService;
     }
 
     @GetMapping("/public")
-    public ResponseEntity<Page<Course>> getPublicCourses(Pageable pageable) {
+    public ResponseEntity<Page<CourseView>> getPublicCourses(Pageable pageable) {
         return ResponseEntity.ok(courseService.searchCourses("", pageable));
     }
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Page<Course>> getAllCourses(
+    public ResponseEntity<Page<CourseView>> getAllCourses(
             @RequestParam(required = false) String search,
             Pageable pageable) {
         return ResponseEntity.ok(courseService.searchCourses(search, pageable));
     }
 
+    @GetMapping("/scroll")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<CursorSlice<CourseView>> scrollCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseService.scrollCourses(cursor, size));
+    }
+
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<Course> createCourse(@Valid @RequestBody CourseRequest request) {
+    public ResponseEntity<CourseView> createCourse(@Valid @RequestBody CourseRequest request) {
         Course course = Course.builder()
             .code(request.getCode())
             .title(request.getTitle())
@@ -57,7 +77,7 @@ public class CourseController {
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#id)")
-    public ResponseEntity<Course> updateCourse(@PathVariable Long id, 
+    public ResponseEntity<CourseView> updateCourse(@PathVariable Long id, 
                                              @Valid @RequestBody CourseRequest request) {
         return ResponseEntity.ok(courseService.updateCourse(id, request));
     }
@@ -71,7 +91,7 @@ public class CourseController {
 
     @PostMapping("/{id}/enroll")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<Enrollment> enrollInCourse(@PathVariable Long id) {
+    public ResponseEntity<EnrollmentView> enrollInCourse(@PathVariable Long id) {
         return ResponseEntity.ok(courseService.enrollStudent(id, userService.getCurrentUser()));
     }
 
@@ -82,11 +102,35 @@ public class CourseController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping(value = "/{id}/roster", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#id)")
+    public ResponseEntity<RosterImportResult> importRoster(@PathVariable Long id,
+                                                           @RequestBody List<RosterEntry> roster) {
+        return ResponseEntity.ok(rosterImportService.importRoster(id, roster, userService.getCurrentUser()));
+    }
+
+    @PostMapping(value = "/{id}/roster", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#id)")
+    public ResponseEntity<RosterImportResult> importRosterCsv(@PathVariable Long id,
+                                                              @RequestBody String csv) {
+        return ResponseEntity.ok(rosterImportService.importRoster(
+            id, rosterImportService.parseCsv(csv), userService.getCurrentUser()));
+    }
+
     @GetMapping("/{id}/enrollments")
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#id)")
-    public ResponseEntity<Page<Enrollment>> getCourseEnrollments(
+    public ResponseEntity<Page<EnrollmentView>> getCourseEnrollments(
             @PathVariable Long id, 
             Pageable pageable) {
         return ResponseEntity.ok(courseService.getCourseEnrollments(id, pageable));
     }
+
+    @GetMapping("/{id}/enrollments/scroll")
+    @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#id)")
+    public ResponseEntity<CursorSlice<EnrollmentView>> scrollCourseEnrollments(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseService.scrollCourseEnrollments(id, cursor, size));
+    }
 }
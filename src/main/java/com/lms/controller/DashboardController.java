@@ -1,12 +1,9 @@
 package com.lms.controller;
 
+import com.lms.config.SecurityUtils;
 import com.lms.dto.DashboardResponse;
-import com.lms.model.Assignment;
-import com.lms.model.Course;
-import com.lms.model.User;
-import com.lms.service.AssignmentService;
 import com.lms.service.CourseService;
-import com.lms.service.SubmissionService;
+import com.lms.service.DashboardService;
 import com.lms.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -15,9 +12,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,19 +20,19 @@ import java.util.Map;
 public class DashboardController {
 
     private final CourseService courseService;
-    private final AssignmentService assignmentService;
-    private final SubmissionService submissionService;
     private final UserService userService;
+    private final DashboardService dashboardService;
+    private final SecurityUtils securityUtils;
 
     @Autowired
     public DashboardController(CourseService courseService,
-                             AssignmentService assignmentService,
-                             SubmissionService submissionService,
-                             UserService userService) {
+                             UserService userService,
+                             DashboardService dashboardService,
+                             SecurityUtils securityUtils) {
         this.courseService = courseService;
-        this.assignmentService = assignmentService;
-        this.submissionService = submissionService;
         this.userService = userService;
+        this.dashboardService = dashboardService;
+        this.securityUtils = securityUtils;
     }
 
     @GetMapping("/admin")
@@ -55,31 +50,14 @@ public class DashboardController {
     @GetMapping("/instructor")
     @PreAuthorize("hasRole('INSTRUCTOR')")
     public ResponseEntity<DashboardResponse> getInstructorDashboard() {
-        User instructor = userService.getCurrentUser();
-        Map<String, Object> stats = new HashMap<>();
-        
-        List<Course> activeCourses = courseService.findActiveCoursesForInstructor(instructor);
-        List<Assignment> upcomingAssignments = assignmentService.findUpcomingAssignmentsForInstructor(instructor);
-        
-        stats.put("activeCourses", activeCourses);
-        stats.put("totalStudents", courseService.countTotalStudentsForInstructor(instructor));
-        stats.put("upcomingAssignments", upcomingAssignments);
-        stats.put("pendingGrading", submissionService.getPendingGradingByInstructor(instructor));
-
-        return ResponseEntity.ok(new DashboardResponse(stats));
+        return ResponseEntity.ok(new DashboardResponse(
+            dashboardService.getInstructorDashboard(securityUtils.getCurrentUserId())));
     }
 
     @GetMapping("/student")
     @PreAuthorize("hasRole('STUDENT')")
     public ResponseEntity<DashboardResponse> getStudentDashboard() {
-        User student = userService.getCurrentUser();
-        Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("enrolledCourses", courseService.getEnrolledCourses(student));
-        stats.put("upcomingAssignments", assignmentService.getUpcomingAssignmentsForStudent(student));
-        stats.put("recentGrades", submissionService.getRecentGrades(student));
-        stats.put("overallProgress", submissionService.calculateStudentAverageScore(student));
-
-        return ResponseEntity.ok(new DashboardResponse(stats));
+        return ResponseEntity.ok(new DashboardResponse(
+            dashboardService.getStudentDashboard(securityUtils.getCurrentUserId())));
     }
 }
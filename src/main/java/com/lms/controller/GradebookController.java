@@ -0,0 +1,58 @@
+package com.lms.controller;
+
+import com.lms.service.GradebookExportService;
+import com.lms.service.GradebookExportService.Format;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/gradebook")
+public class GradebookController {
+
+    private final GradebookExportService gradebookExportService;
+
+    @Autowired
+    public GradebookController(GradebookExportService gradebookExportService) {
+        this.gradebookExportService = gradebookExportService;
+    }
+
+    @GetMapping("/courses/{courseId}")
+    @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfCourse(#courseId)")
+    public ResponseEntity<StreamingResponseBody> exportCourse(@PathVariable Long courseId,
+                                                              @RequestParam(defaultValue = "CSV") Format format) {
+        String fileName = gradebookExportService.getCourseCode(courseId) + "-gradebook";
+        return download(fileName, format, out -> gradebookExportService.exportCourse(courseId, format, out));
+    }
+
+    @GetMapping("/term")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportTerm(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "CSV") Format format) {
+        if (to.isBefore(from)) {
+            throw new RuntimeException("Term end is before its start");
+        }
+        String fileName = "gradebook-" + from + "-to-" + to;
+        return download(fileName, format, out -> gradebookExportService.exportTerm(from, to, format, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> download(String fileName, Format format, StreamingResponseBody body) {
+        ContentDisposition disposition = ContentDisposition.attachment()
+            .filename(fileName.replaceAll("[^A-Za-z0-9._-]", "_") + "." + format.getExtension())
+            .build();
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .body(body);
+    }
+}
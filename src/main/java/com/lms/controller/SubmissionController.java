@@ -1,39 +1,63 @@
 package com.lms.controller;
 
+import com.lms.config.FileRangeSender;
+import com.lms.config.JsonArrayStreamer;
+import com.lms.config.SecurityUtils;
 import com.lms.dto.GradeSubmissionRequest;
-import com.lms.model.Submission;
+import com.lms.dto.SubmissionFile;
+import com.lms.dto.SubmissionView;
+import com.lms.dto.UploadSessionRequest;
+import com.lms.dto.UploadSessionView;
+import com.lms.service.ChunkedUploadService;
 import com.lms.service.SubmissionService;
 import com.lms.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/assignments/{assignmentId}/submissions")
 public class SubmissionController {
 
+    static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+
     private final SubmissionService submissionService;
     private final UserService userService;
+    private final JsonArrayStreamer jsonArrayStreamer;
+    private final FileRangeSender fileRangeSender;
+    private final ChunkedUploadService chunkedUploadService;
+    private final SecurityUtils securityUtils;
 
     @Autowired
-    public SubmissionController(SubmissionService submissionService, UserService userService) {
+    public SubmissionController(SubmissionService submissionService,
+                                UserService userService,
+                                JsonArrayStreamer jsonArrayStreamer,
+                                FileRangeSender fileRangeSender,
+                                ChunkedUploadService chunkedUploadService,
+                                SecurityUtils securityUtils) {
         this.submissionService = submissionService;
         this.userService = userService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
+        this.fileRangeSender = fileRangeSender;
+        this.chunkedUploadService = chunkedUploadService;
+        this.securityUtils = securityUtils;
     }
 
     @PostMapping
     @PreAuthorize("hasRole('STUDENT') and @securityUtils.canSubmitToAssignment(#assignmentId)")
-    public ResponseEntity<Submission> submitAssignment(
+    public ResponseEntity<SubmissionView> submitAssignment(
             @PathVariable Long assignmentId,
             @RequestParam("file") MultipartFile file) {
         return ResponseEntity.ok(submissionService.submitAssignment(
@@ -43,23 +67,9 @@ public class SubmissionController {
         ));
     }
 
-    @GetMapping("/{id}/download")
-    @PreAuthorize("hasRole('ADMIN') or @securityUtils.canAccessSubmission(#id)")
-    public ResponseEntity<Resource> downloadSubmission(
-            @PathVariable Long assignmentId,
-            @PathVariable Long id) {
-        Submission submission = submissionService.getSubmission(id);
-        Resource resource = submissionService.loadSubmissionFile(submission.getFilePath());
-        
-        return ResponseEntity.ok()
-            .contentType(MediaType.APPLICATION_OCTET_STREAM)
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + submission.getFileName() + "\"")
-            .body(resource);
-    }
-
     @PutMapping("/{id}/grade")
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.isInstructorOfSubmission(#id)")
-    public ResponseEntity<Submission> gradeSubmission(
+    public ResponseEntity<SubmissionView> gradeSubmission(
             @PathVariable Long assignmentId,
             @PathVariable Long id,
             @Valid @RequestBody GradeSubmissionRequest request) {
@@ -72,30 +82,79 @@ public class SubmissionController {
 
     @GetMapping("/student")
     @PreAuthorize("hasRole('STUDENT')")
-    public ResponseEntity<List<Submission>> getStudentSubmissions() {
-        return ResponseEntity.ok(submissionService.getStudentSubmissions(
-            userService.getCurrentUser()
+    public ResponseEntity<StreamingResponseBody> getStudentSubmissions() {
+        // Resolved here: the body is written on another thread, outside this request's context
+        Long studentId = userService.getCurrentUser().getId();
+        return jsonArrayStreamer.stream(sink -> submissionService.streamStudentSubmissions(studentId, sink));
+    }
+
+    // Chunked uploads for files too large for a single request
+
+    @PostMapping("/uploads")
+    @PreAuthorize("hasRole('STUDENT') and @securityUtils.canSubmitToAssignment(#assignmentId)")
+    public ResponseEntity<UploadSessionView> createUpload(
+            @PathVariable Long assignmentId,
+            @Valid @RequestBody UploadSessionRequest request) throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.createSession(
+            assignmentId,
+            userService.getCurrentUser(),
+            request
         ));
     }
 
+    @GetMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<UploadSessionView> getUpload(
+            @PathVariable Long assignmentId,
+            @PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.getSession(
+            assignmentId, securityUtils.getCurrentUserId(), uploadId));
+    }
+
+    @PutMapping(value = "/uploads/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<UploadSessionView> uploadChunk(
+            @PathVariable Long assignmentId,
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            @RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String sha256,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.writeChunk(
+            assignmentId, securityUtils.getCurrentUserId(), uploadId, index, body, sha256));
+    }
+
+    @PostMapping("/uploads/{uploadId}/complete")
+    @PreAuthorize("hasRole('STUDENT') and @securityUtils.canSubmitToAssignment(#assignmentId)")
+    public ResponseEntity<SubmissionView> completeUpload(
+            @PathVariable Long assignmentId,
+            @PathVariable String uploadId) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.complete(
+            assignmentId, userService.getCurrentUser(), uploadId));
+    }
+
+    @DeleteMapping("/uploads/{uploadId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<Void> cancelUpload(
+            @PathVariable Long assignmentId,
+            @PathVariable String uploadId) {
+        chunkedUploadService.cancel(assignmentId, securityUtils.getCurrentUserId(), uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/{id}/download")
     @PreAuthorize("@securityUtils.canAccessSubmission(#id)")
-    public ResponseEntity<Resource> downloadSubmission(
+    public void downloadSubmission(
             @PathVariable Long assignmentId,
-            @PathVariable Long id) throws IOException {
-        byte[] file = submissionService.downloadSubmission(id);
-        ByteArrayResource resource = new ByteArrayResource(file);
-
-        return ResponseEntity.ok()
-            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=submission")
-            .contentType(MediaType.APPLICATION_OCTET_STREAM)
-            .contentLength(file.length)
-            .body(resource);
+            @PathVariable Long id,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        SubmissionFile file = submissionService.getSubmissionFile(id);
+        fileRangeSender.send(request, response, file.getPath(), file.getDownloadName(), file.getContentHash());
     }
 
     @GetMapping("/pending")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<List<Submission>> getPendingSubmissions() {
+    public ResponseEntity<List<SubmissionView>> getPendingSubmissions() {
         return ResponseEntity.ok(submissionService.getPendingGradingByInstructor(
             userService.getCurrentUser()
         ));
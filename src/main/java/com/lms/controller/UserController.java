@@ -1,13 +1,18 @@
 package com.lms.controller;
 
+import com.lms.config.JsonArrayStreamer;
+import com.lms.dto.UserSummary;
 import com.lms.dto.UserUpdateRequest;
 import com.lms.model.User;
 import com.lms.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -15,30 +20,59 @@ import java.util.List;
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final UserService userService;
+    private final JsonArrayStreamer jsonArrayStreamer;
 
     @Autowired
-    public UserController(UserService userService) {
+    public UserController(UserService userService, JsonArrayStreamer jsonArrayStreamer) {
         this.userService = userService;
+        this.jsonArrayStreamer = jsonArrayStreamer;
     }
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getAllUsers() {
-        return ResponseEntity.ok(userService.findAll());
+    public ResponseEntity<Page<UserSummary>> getAllUsers(Pageable pageable) {
+        return ResponseEntity.ok(userService.findAll(pageable));
+    }
+
+    // Unpaged export of every user, optionally of one role, as a streamed JSON array
+    @GetMapping("/stream")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamUsers(@RequestParam(required = false) User.Role role) {
+        return jsonArrayStreamer.stream(sink -> userService.streamUsers(role, sink));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Page<UserSummary>> searchUsers(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) User.Role role,
+            Pageable pageable) {
+        return ResponseEntity.ok(userService.searchDirectory(role, q, pageable));
+    }
+
+    @GetMapping("/suggest")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<UserSummary>> suggestUsers(
+            @RequestParam String q,
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(userService.suggestUsers(role, q, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS)));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.canAccessResource(#id)")
-    public ResponseEntity<User> getUser(@PathVariable Long id) {
+    public ResponseEntity<UserSummary> getUser(@PathVariable Long id) {
         return userService.findById(id)
-            .map(ResponseEntity::ok)
+            .map(user -> ResponseEntity.ok(UserSummary.from(user)))
             .orElse(ResponseEntity.notFound().build());
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or @securityUtils.canAccessResource(#id)")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, 
+    public ResponseEntity<UserSummary> updateUser(@PathVariable Long id, 
                                          @Valid @RequestBody UserUpdateRequest request) {
         User user = userService.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -47,14 +81,14 @@ public class UserController {
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
         
-        return ResponseEntity.ok(userService.updateUser(user));
+        return ResponseEntity.ok(UserSummary.from(userService.updateUser(user)));
     }
 
     @PutMapping("/{id}/role")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<User> updateUserRole(@PathVariable Long id, 
+    public ResponseEntity<UserSummary> updateUserRole(@PathVariable Long id, 
                                              @RequestParam User.Role role) {
-        return ResponseEntity.ok(userService.updateUserRole(id, role));
+        return ResponseEntity.ok(UserSummary.from(userService.updateUserRole(id, role)));
     }
 
     @DeleteMapping("/{id}")
@@ -66,7 +100,7 @@ public class UserController {
 
     @GetMapping("/role/{role}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<User>> getUsersByRole(@PathVariable User.Role role) {
-        return ResponseEntity.ok(userService.findUsersByRole(role));
+    public ResponseEntity<Page<UserSummary>> getUsersByRole(@PathVariable User.Role role, Pageable pageable) {
+        return ResponseEntity.ok(userService.findUsersByRole(role, pageable));
     }
 }
@@ -0,0 +1,20 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat assignment row for the instructor dashboard.
+ */
+@Value
+public class AssignmentSummary {
+    Long id;
+    String title;
+    Long courseId;
+    String courseTitle;
+    LocalDateTime dueDate;
+    BigDecimal totalPoints;
+    Long submissionCount;
+}
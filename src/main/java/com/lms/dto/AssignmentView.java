@@ -0,0 +1,25 @@
+package com.lms.dto;
+
+import com.lms.model.Assignment;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Assignment as returned by the API.
+ */
+@Value
+public class AssignmentView {
+    Long id;
+    Long courseId;
+    String title;
+    String description;
+    LocalDateTime dueDate;
+    BigDecimal totalPoints;
+
+    public static AssignmentView from(Assignment assignment) {
+        return new AssignmentView(assignment.getId(), assignment.getCourse().getId(), assignment.getTitle(),
+            assignment.getDescription(), assignment.getDueDate(), assignment.getTotalPoints());
+    }
+}
@@ -0,0 +1,23 @@
+package com.lms.dto;
+
+import com.lms.model.Book;
+import lombok.Value;
+
+/**
+ * Book as returned by the API.
+ */
+@Value
+public class BookView {
+    Long id;
+    String title;
+    String author;
+    String isbn;
+    String description;
+    Integer availableCopies;
+    Integer totalCopies;
+
+    public static BookView from(Book book) {
+        return new BookView(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+            book.getDescription(), book.getAvailableCopies(), book.getTotalCopies());
+    }
+}
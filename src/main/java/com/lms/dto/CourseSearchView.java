@@ -0,0 +1,14 @@
+package com.lms.dto;
+
+/**
+ * Interface projection with just the columns the course search index needs.
+ */
+public interface CourseSearchView {
+    Long getId();
+
+    String getCode();
+
+    String getTitle();
+
+    String getDescription();
+}
@@ -0,0 +1,19 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Flat course row for dashboards, filled by a JPQL constructor expression.
+ */
+@Value
+public class CourseSummary {
+    Long id;
+    String code;
+    String title;
+    LocalDate startDate;
+    LocalDate endDate;
+    Integer maxStudents;
+    Long activeEnrollments;
+}
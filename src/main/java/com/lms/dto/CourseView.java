@@ -0,0 +1,32 @@
+package com.lms.dto;
+
+import com.lms.model.Course;
+import com.lms.model.User;
+import lombok.Value;
+
+import java.time.LocalDate;
+
+/**
+ * Course as returned by the API, with the instructor flattened to id and name.
+ */
+@Value
+public class CourseView {
+    Long id;
+    String code;
+    String title;
+    String description;
+    Long instructorId;
+    String instructorFirstName;
+    String instructorLastName;
+    Integer maxStudents;
+    LocalDate startDate;
+    LocalDate endDate;
+
+    // Call inside the transaction; reads the instructor association
+    public static CourseView from(Course course) {
+        User instructor = course.getInstructor();
+        return new CourseView(course.getId(), course.getCode(), course.getTitle(), course.getDescription(),
+            instructor.getId(), instructor.getFirstName(), instructor.getLastName(),
+            course.getMaxStudents(), course.getStartDate(), course.getEndDate());
+    }
+}
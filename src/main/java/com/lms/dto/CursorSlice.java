@@ -0,0 +1,17 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One window of a keyset-paginated listing. Pass {@code nextCursor} back to get
+ * the following window; there is no total count.
+ */
+@Value
+public class CursorSlice<T> {
+    List<T> content;
+    int size;
+    boolean hasNext;
+    String nextCursor;
+}
@@ -0,0 +1,12 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class DashboardResponse {
+    private Map<String, Object> stats;
+}
@@ -0,0 +1,33 @@
+package com.lms.dto;
+
+import com.lms.model.Enrollment;
+import com.lms.model.Enrollment.EnrollmentStatus;
+import com.lms.model.User;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Enrollment as returned by the API, with the student flattened to id and name.
+ */
+@Value
+public class EnrollmentView {
+    Long id;
+    Long courseId;
+    Long studentId;
+    String studentUsername;
+    String studentFirstName;
+    String studentLastName;
+    EnrollmentStatus status;
+    LocalDateTime enrollmentDate;
+    BigDecimal grade;
+
+    // Call inside the transaction; reads the student association
+    public static EnrollmentView from(Enrollment enrollment) {
+        User student = enrollment.getStudent();
+        return new EnrollmentView(enrollment.getId(), enrollment.getCourse().getId(), student.getId(),
+            student.getUsername(), student.getFirstName(), student.getLastName(),
+            enrollment.getStatus(), enrollment.getEnrollmentDate(), enrollment.getGrade());
+    }
+}
@@ -0,0 +1,17 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Value
+public class GradeSummary {
+    Long submissionId;
+    Long assignmentId;
+    String assignmentTitle;
+    String courseTitle;
+    BigDecimal score;
+    BigDecimal totalPoints;
+    LocalDateTime gradedAt;
+}
@@ -0,0 +1,29 @@
+package com.lms.dto;
+
+import com.lms.model.Enrollment.EnrollmentStatus;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One enrollment x assignment cell of a gradebook export. The submission
+ * fields are null when the student has not submitted.
+ */
+@Value
+public class GradebookRow {
+    String courseCode;
+    String courseTitle;
+    Long studentId;
+    String username;
+    String firstName;
+    String lastName;
+    EnrollmentStatus enrollmentStatus;
+    Long assignmentId;
+    String assignmentTitle;
+    LocalDateTime dueDate;
+    BigDecimal totalPoints;
+    LocalDateTime submittedAt;
+    BigDecimal score;
+    String feedback;
+}
@@ -0,0 +1,16 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+@Value
+public class PendingSubmissionSummary {
+    Long submissionId;
+    Long assignmentId;
+    String assignmentTitle;
+    Long studentId;
+    String studentFirstName;
+    String studentLastName;
+    LocalDateTime submissionDate;
+}
@@ -0,0 +1,17 @@
+package com.lms.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One roster line. A student is matched by email when present, otherwise by
+ * username.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RosterEntry {
+    private String username;
+    private String email;
+}
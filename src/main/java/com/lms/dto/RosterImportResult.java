@@ -0,0 +1,19 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk roster import, with one result per submitted row in
+ * submission order. notificationsDropped counts enrollment confirmations the
+ * mail queue had no room for.
+ */
+@Value
+public class RosterImportResult {
+    int totalRows;
+    int enrolled;
+    int skipped;
+    int notificationsDropped;
+    List<RosterRowResult> rows;
+}
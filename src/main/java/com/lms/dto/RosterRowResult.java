@@ -0,0 +1,15 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+@Value
+public class RosterRowResult {
+    int row;
+    String identifier;
+    Status status;
+    Long userId;
+
+    public enum Status {
+        ENROLLED, ALREADY_ENROLLED, NOT_FOUND, NOT_A_STUDENT, DUPLICATE, COURSE_FULL, INVALID
+    }
+}
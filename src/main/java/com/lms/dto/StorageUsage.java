@@ -0,0 +1,23 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+/**
+ * Totals over the content-addressed store. Logical bytes count every
+ * reference, physical bytes every blob once.
+ */
+@Value
+public class StorageUsage {
+    long blobs;
+    long references;
+    long physicalBytes;
+    long logicalBytes;
+
+    public long getSavedBytes() {
+        return logicalBytes - physicalBytes;
+    }
+
+    public double getDedupRatio() {
+        return physicalBytes == 0 ? 1.0 : (double) logicalBytes / physicalBytes;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat assignment row for the student dashboard, with the student's own submission state.
+ */
+@Value
+public class StudentAssignmentSummary {
+    Long id;
+    String title;
+    Long courseId;
+    String courseTitle;
+    LocalDateTime dueDate;
+    BigDecimal totalPoints;
+    boolean submitted;
+}
@@ -0,0 +1,15 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * A submission's file on disk, as needed to serve a download.
+ */
+@Value
+public class SubmissionFile {
+    Path path;
+    String downloadName;
+    String contentHash;
+}
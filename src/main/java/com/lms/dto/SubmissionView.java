@@ -0,0 +1,34 @@
+package com.lms.dto;
+
+import com.lms.model.Submission;
+import com.lms.model.User;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Submission as returned by the API. The stored file location is not exposed;
+ * files are fetched through the download endpoint.
+ */
+@Value
+public class SubmissionView {
+    Long id;
+    Long assignmentId;
+    String assignmentTitle;
+    Long studentId;
+    String studentFirstName;
+    String studentLastName;
+    LocalDateTime submissionDate;
+    BigDecimal score;
+    String feedback;
+
+    // Call inside the transaction; reads the assignment and student associations
+    public static SubmissionView from(Submission submission) {
+        User student = submission.getStudent();
+        return new SubmissionView(submission.getId(), submission.getAssignment().getId(),
+            submission.getAssignment().getTitle(), student.getId(), student.getFirstName(),
+            student.getLastName(), submission.getSubmissionDate(), submission.getScore(),
+            submission.getFeedback());
+    }
+}
@@ -0,0 +1,12 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+/**
+ * Placeholder for a dashboard section that could not be produced in time.
+ */
+@Value
+public class UnavailableSection {
+    String status = "unavailable";
+    String reason;
+}
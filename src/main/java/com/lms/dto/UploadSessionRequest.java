@@ -0,0 +1,28 @@
+package com.lms.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Opens a chunked upload. The chunk size defaults to the server's; the
+ * SHA-256 of the whole file, when given, is checked on completion.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionRequest {
+    @NotBlank
+    private String fileName;
+
+    @Positive
+    private long size;
+
+    private Integer chunkSize;
+
+    @Pattern(regexp = "[0-9a-fA-F]{64}")
+    private String sha256;
+}
@@ -0,0 +1,22 @@
+package com.lms.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * State of a chunked upload. {@code offset} is how many bytes from the start
+ * have arrived without gaps; {@code missingChunks} lists the chunk numbers
+ * still to be sent, in any order.
+ */
+@Value
+public class UploadSessionView {
+    String id;
+    String fileName;
+    long size;
+    int chunkSize;
+    int chunkCount;
+    int receivedChunks;
+    long offset;
+    List<Integer> missingChunks;
+}
@@ -0,0 +1,24 @@
+package com.lms.dto;
+
+import com.lms.model.User;
+import com.lms.model.User.Role;
+import lombok.Value;
+
+/**
+ * Public fields of a user for directory listings and typeahead. Never carries
+ * the password hash or relationships.
+ */
+@Value
+public class UserSummary {
+    Long id;
+    String username;
+    String email;
+    String firstName;
+    String lastName;
+    Role role;
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getUsername(), user.getEmail(),
+            user.getFirstName(), user.getLastName(), user.getRole());
+    }
+}
@@ -2,17 +2,23 @@ package com.lms.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
+@ToString(exclude = {"course", "submissions"})
+@EqualsAndHashCode(exclude = {"course", "submissions"})
 @Entity
-@Table(name = "assignments")
+@Table(name = "assignments",
+       indexes = @Index(name = "idx_assignments_course_due", columnList = "course_id, due_date, id"))
 public class Assignment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignments_seq")
+    @SequenceGenerator(name = "assignments_seq", sequenceName = "assignments_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
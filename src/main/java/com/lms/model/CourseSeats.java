@@ -0,0 +1,23 @@
+package com.lms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Seat counter per course. Kept out of the courses table so that taking a
+ * seat only locks this small row and never invalidates the cached Course.
+ */
+@Data
+@Entity
+@Table(name = "course_seats")
+public class CourseSeats {
+    @Id
+    @Column(name = "course_id")
+    private Long courseId;
+
+    @Column(nullable = false)
+    private Integer capacity;
+
+    @Column(nullable = false)
+    private Integer taken = 0;
+}
@@ -0,0 +1,24 @@
+package com.lms.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class StatisticsKey implements Serializable {
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatisticsSummary.Scope scope;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+}
@@ -0,0 +1,54 @@
+package com.lms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * Running counters per course, assignment or student, maintained on every
+ * enroll/unenroll/submit/grade so reads never have to aggregate.
+ *
+ * <ul>
+ *   <li>COURSE: itemCount = active enrollments</li>
+ *   <li>ASSIGNMENT: itemCount = submissions, graded* = scored submissions</li>
+ *   <li>STUDENT: itemCount = submissions, graded* = scored submissions</li>
+ * </ul>
+ */
+@Data
+@Entity
+@Table(name = "statistics_summary")
+public class StatisticsSummary {
+    @EmbeddedId
+    private StatisticsKey id;
+
+    @Column(name = "item_count", nullable = false)
+    private Long itemCount = 0L;
+
+    @Column(name = "graded_count", nullable = false)
+    private Long gradedCount = 0L;
+
+    @Column(name = "score_sum", nullable = false, precision = 19, scale = 2)
+    private BigDecimal scoreSum = BigDecimal.ZERO;
+
+    @Column(name = "min_score", precision = 5, scale = 2)
+    private BigDecimal minScore;
+
+    @Column(name = "max_score", precision = 5, scale = 2)
+    private BigDecimal maxScore;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public enum Scope {
+        COURSE, ASSIGNMENT, STUDENT
+    }
+
+    public Double getAverageScore() {
+        if (gradedCount == null || gradedCount == 0) {
+            return null;
+        }
+        return scoreSum.divide(BigDecimal.valueOf(gradedCount), 4, RoundingMode.HALF_UP).doubleValue();
+    }
+}
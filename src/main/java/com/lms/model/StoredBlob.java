@@ -0,0 +1,27 @@
+package com.lms.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * One unique upload in the content-addressed store, kept once on disk under
+ * its SHA-256 however many submissions refer to it.
+ */
+@Data
+@Entity
+@Table(name = "stored_blobs")
+public class StoredBlob {
+    @Id
+    @Column(length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+}
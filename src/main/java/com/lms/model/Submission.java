@@ -2,16 +2,22 @@ package com.lms.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
+@ToString(exclude = {"assignment", "student"})
+@EqualsAndHashCode(exclude = {"assignment", "student"})
 @Entity
 @Table(name = "assignment_submissions",
-       uniqueConstraints = @UniqueConstraint(columnNames = {"assignment_id", "student_id"}))
+       uniqueConstraints = @UniqueConstraint(columnNames = {"assignment_id", "student_id"}),
+       indexes = @Index(name = "idx_submissions_student_date", columnList = "student_id, submission_date, id"))
 public class Submission {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_submissions_seq")
+    @SequenceGenerator(name = "assignment_submissions_seq", sequenceName = "assignment_submissions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -28,6 +34,10 @@ public class Submission {
     @Column(name = "file_url")
     private String fileUrl;
 
+    // Hex SHA-256 of the file; served as the download ETag
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(precision = 5, scale = 2)
     private BigDecimal score;
 
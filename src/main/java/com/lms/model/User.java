@@ -2,16 +2,25 @@ package com.lms.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Data
+@ToString(exclude = {"password", "coursesTeaching", "enrollments", "submissions"})
+@EqualsAndHashCode(exclude = {"coursesTeaching", "enrollments", "submissions"})
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "lms.user")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true, length = 50)
@@ -33,6 +42,10 @@ public class User {
     @Column(nullable = false)
     private Role role;
 
+    // Bumped whenever credentials or role change so previously issued tokens stop validating
+    @Column(name = "security_version", nullable = false)
+    private Integer securityVersion = 0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -1,9 +1,13 @@
 package com.lms.repository;
 
+import com.lms.dto.AssignmentSummary;
+import com.lms.dto.AssignmentView;
+import com.lms.dto.StudentAssignmentSummary;
 import com.lms.model.Assignment;
 import com.lms.model.Course;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -19,6 +23,34 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     
     Page<Assignment> findByCourse(Course course, Pageable pageable);
     
+    // API read model
+    @Query(value = "SELECT new com.lms.dto.AssignmentView(a.id, a.course.id, a.title, a.description, a.dueDate, " +
+                   "a.totalPoints) " +
+                   "FROM Assignment a WHERE a.course.id = :courseId",
+           countQuery = "SELECT COUNT(a) FROM Assignment a WHERE a.course.id = :courseId")
+    Page<AssignmentView> findViewsByCourseId(@Param("courseId") Long courseId, Pageable pageable);
+    
+    @Query("SELECT new com.lms.dto.AssignmentView(a.id, a.course.id, a.title, a.description, a.dueDate, " +
+           "a.totalPoints) " +
+           "FROM Assignment a WHERE a.course.id = :courseId AND a.dueDate > :currentDate ORDER BY a.dueDate")
+    List<AssignmentView> findUpcomingViews(@Param("courseId") Long courseId,
+                                           @Param("currentDate") LocalDateTime currentDate);
+    
+    // Keyset pagination over a course's assignments in (dueDate, id) order
+    @Query("SELECT new com.lms.dto.AssignmentView(a.id, a.course.id, a.title, a.description, a.dueDate, " +
+           "a.totalPoints) " +
+           "FROM Assignment a WHERE a.course.id = :courseId ORDER BY a.dueDate, a.id")
+    Slice<AssignmentView> findCourseWindow(@Param("courseId") Long courseId, Pageable pageable);
+    
+    @Query("SELECT new com.lms.dto.AssignmentView(a.id, a.course.id, a.title, a.description, a.dueDate, " +
+           "a.totalPoints) " +
+           "FROM Assignment a WHERE a.course.id = :courseId AND " +
+           "(a.dueDate > :dueDate OR (a.dueDate = :dueDate AND a.id > :id)) ORDER BY a.dueDate, a.id")
+    Slice<AssignmentView> findCourseWindowAfter(@Param("courseId") Long courseId,
+                                            @Param("dueDate") LocalDateTime dueDate,
+                                            @Param("id") Long id,
+                                            Pageable pageable);
+    
     @Query("SELECT a FROM Assignment a WHERE a.course = :course AND a.dueDate > :currentDate")
     List<Assignment> findUpcomingAssignments(@Param("course") Course course, 
                                            @Param("currentDate") LocalDateTime currentDate);
@@ -29,9 +61,27 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
                                               @Param("startDate") LocalDateTime startDate, 
                                               @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT COUNT(s) FROM Assignment a JOIN a.submissions s WHERE a.id = :assignmentId")
-    long countSubmissions(@Param("assignmentId") Long assignmentId);
+    @Query("SELECT COUNT(a) > 0 FROM Assignment a WHERE a.id = :assignmentId AND a.course.instructor.id = :userId")
+    boolean isInstructorOfAssignment(@Param("assignmentId") Long assignmentId, @Param("userId") Long userId);
+    
+    @Query("SELECT new com.lms.dto.AssignmentSummary(a.id, a.title, c.id, c.title, a.dueDate, a.totalPoints, " +
+           "COALESCE(st.itemCount, 0L)) " +
+           "FROM Assignment a JOIN a.course c " +
+           "LEFT JOIN StatisticsSummary st ON st.id.scope = 'ASSIGNMENT' AND st.id.scopeId = a.id " +
+           "WHERE c.instructor.id = :instructorId AND a.dueDate > :currentDate " +
+           "ORDER BY a.dueDate")
+    List<AssignmentSummary> findUpcomingAssignmentSummariesForInstructor(@Param("instructorId") Long instructorId,
+                                                                         @Param("currentDate") LocalDateTime currentDate,
+                                                                         Pageable pageable);
     
-    @Query("SELECT AVG(s.score) FROM Assignment a JOIN a.submissions s WHERE a.id = :assignmentId")
-    Double calculateAverageScore(@Param("assignmentId") Long assignmentId);
+    @Query("SELECT new com.lms.dto.StudentAssignmentSummary(a.id, a.title, c.id, c.title, a.dueDate, " +
+           "a.totalPoints, CASE WHEN s.id IS NULL THEN false ELSE true END) " +
+           "FROM Assignment a JOIN a.course c " +
+           "JOIN Enrollment e ON e.course = c " +
+           "LEFT JOIN Submission s ON s.assignment = a AND s.student.id = :studentId " +
+           "WHERE e.student.id = :studentId AND e.status = 'ACTIVE' AND a.dueDate > :currentDate " +
+           "ORDER BY a.dueDate")
+    List<StudentAssignmentSummary> findUpcomingAssignmentSummariesForStudent(@Param("studentId") Long studentId,
+                                                                             @Param("currentDate") LocalDateTime currentDate,
+                                                                             Pageable pageable);
 }
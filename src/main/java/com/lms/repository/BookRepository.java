@@ -1,10 +1,25 @@
 package com.lms.repository;
 
+import com.lms.dto.BookView;
 import com.lms.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
-    // Custom query methods can be added here
+
+    // Keyset window of the catalog in (title, id) order, for the streamed listing.
+    // Start from afterTitle = "" and afterId = 0.
+    @Query("SELECT new com.lms.dto.BookView(b.id, b.title, b.author, b.isbn, b.description, " +
+           "b.availableCopies, b.totalCopies) FROM Book b " +
+           "WHERE b.title > :afterTitle OR (b.title = :afterTitle AND b.id > :afterId) " +
+           "ORDER BY b.title, b.id")
+    List<BookView> findViewsAfter(@Param("afterTitle") String afterTitle,
+                                  @Param("afterId") Long afterId,
+                                  Pageable pageable);
 }
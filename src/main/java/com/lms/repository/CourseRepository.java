@@ -1,15 +1,23 @@
 package com.lms.repository;
 
+import com.lms.dto.CourseSearchView;
+import com.lms.dto.CourseSummary;
+import com.lms.dto.CourseView;
 import com.lms.model.Course;
 import com.lms.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,24 +28,74 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
     
     Page<Course> findByInstructor(User instructor, Pageable pageable);
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "lms.query.course")})
     Optional<Course> findByCode(String code);
     
     boolean existsByCode(String code);
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "lms.query.course")})
     @Query("SELECT c FROM Course c WHERE c.startDate <= :date AND c.endDate >= :date")
     List<Course> findActiveCourses(@Param("date") LocalDate date);
     
-    @Query("SELECT c FROM Course c WHERE " +
-           "LOWER(c.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.code) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(c.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
-    Page<Course> searchCourses(@Param("searchTerm") String searchTerm, Pageable pageable);
-    
     @Query("SELECT c FROM Course c WHERE c.instructor = :instructor AND " +
            "c.startDate <= :currentDate AND c.endDate >= :currentDate")
     List<Course> findActiveCoursesForInstructor(@Param("instructor") User instructor, 
                                                @Param("currentDate") LocalDate currentDate);
     
-    @Query("SELECT COUNT(e) FROM Course c JOIN c.enrollments e WHERE c.id = :courseId")
-    long countEnrollments(@Param("courseId") Long courseId);
+    // API read model: course rows with the instructor's name, one statement per page
+    @Query(value = "SELECT new com.lms.dto.CourseView(c.id, c.code, c.title, c.description, i.id, i.firstName, " +
+           "i.lastName, c.maxStudents, c.startDate, c.endDate) " +
+                   "FROM Course c JOIN c.instructor i",
+           countQuery = "SELECT COUNT(c) FROM Course c")
+    Page<CourseView> findViews(Pageable pageable);
+    
+    @Query("SELECT new com.lms.dto.CourseView(c.id, c.code, c.title, c.description, i.id, i.firstName, " +
+           "i.lastName, c.maxStudents, c.startDate, c.endDate) " +
+           "FROM Course c JOIN c.instructor i WHERE c.id IN :ids")
+    List<CourseView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Keyset pagination over the catalog in (title, id) order
+    @Query("SELECT new com.lms.dto.CourseView(c.id, c.code, c.title, c.description, i.id, i.firstName, " +
+           "i.lastName, c.maxStudents, c.startDate, c.endDate) " +
+           "FROM Course c JOIN c.instructor i ORDER BY c.title, c.id")
+    Slice<CourseView> findCatalogWindow(Pageable pageable);
+    
+    @Query("SELECT new com.lms.dto.CourseView(c.id, c.code, c.title, c.description, i.id, i.firstName, " +
+           "i.lastName, c.maxStudents, c.startDate, c.endDate) " +
+           "FROM Course c JOIN c.instructor i WHERE c.title > :title OR (c.title = :title AND c.id > :id) " +
+           "ORDER BY c.title, c.id")
+    Slice<CourseView> findCatalogWindowAfter(@Param("title") String title, @Param("id") Long id, Pageable pageable);
+    
+    // Keyset-paged feed for rebuilding the in-memory search index
+    @Query("SELECT c.id AS id, c.code AS code, c.title AS title, c.description AS description " +
+           "FROM Course c WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseSearchView> findSearchViews(@Param("afterId") Long afterId, Pageable pageable);
+    
+    // Authorization checks: boolean-only, resolved against indexed foreign keys
+    @Query("SELECT COUNT(c) > 0 FROM Course c WHERE c.id = :courseId AND c.instructor.id = :userId")
+    boolean isInstructorOfCourse(@Param("courseId") Long courseId, @Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(c) > 0 FROM Course c WHERE c.id = :courseId AND (c.instructor.id = :userId OR " +
+           "EXISTS (SELECT e.id FROM Enrollment e WHERE e.course = c AND e.student.id = :userId " +
+           "AND e.status = 'ACTIVE'))")
+    boolean canAccessCourse(@Param("courseId") Long courseId, @Param("userId") Long userId);
+    
+    // Dashboard projections: one statement each, no entity graphs
+    @Query("SELECT new com.lms.dto.CourseSummary(c.id, c.code, c.title, c.startDate, c.endDate, " +
+           "c.maxStudents, COALESCE(st.itemCount, 0L)) " +
+           "FROM Course c LEFT JOIN StatisticsSummary st ON st.id.scope = 'COURSE' AND st.id.scopeId = c.id " +
+           "WHERE c.instructor.id = :instructorId AND c.startDate <= :currentDate AND c.endDate >= :currentDate " +
+           "ORDER BY c.startDate")
+    List<CourseSummary> findActiveCourseSummariesForInstructor(@Param("instructorId") Long instructorId,
+                                                               @Param("currentDate") LocalDate currentDate);
+    
+    @Query("SELECT new com.lms.dto.CourseSummary(c.id, c.code, c.title, c.startDate, c.endDate, " +
+           "c.maxStudents, COALESCE(st.itemCount, 0L)) " +
+           "FROM Enrollment e JOIN e.course c " +
+           "LEFT JOIN StatisticsSummary st ON st.id.scope = 'COURSE' AND st.id.scopeId = c.id " +
+           "WHERE e.student.id = :studentId AND e.status = 'ACTIVE' " +
+           "ORDER BY c.startDate")
+    List<CourseSummary> findEnrolledCourseSummaries(@Param("studentId") Long studentId);
 }
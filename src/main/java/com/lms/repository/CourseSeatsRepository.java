@@ -0,0 +1,76 @@
+package com.lms.repository;
+
+import com.lms.model.CourseSeats;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CourseSeatsRepository extends JpaRepository<CourseSeats, Long> {
+
+    // Check and increment in one statement; the row lock serializes concurrent
+    // reservations for the same course only
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats SET taken = taken + 1 WHERE course_id = :courseId AND taken < capacity",
+           nativeQuery = true)
+    int reserve(@Param("courseId") Long courseId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "UPDATE course_seats SET taken = GREATEST(taken - :count, 0) WHERE course_id = :courseId",
+           nativeQuery = true)
+    int release(@Param("courseId") Long courseId, @Param("count") int count);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CourseSeats s WHERE s.courseId = :courseId")
+    Optional<CourseSeats> findForUpdate(@Param("courseId") Long courseId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "INSERT INTO course_seats (course_id, capacity, taken) VALUES (:courseId, :capacity, 0) " +
+           "ON DUPLICATE KEY UPDATE capacity = VALUES(capacity)",
+           nativeQuery = true)
+    int setCapacity(@Param("courseId") Long courseId, @Param("capacity") int capacity);
+
+    // Seeds counters from the enrollments table for courses that don't have one yet
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "INSERT IGNORE INTO course_seats (course_id, capacity, taken) " +
+           "SELECT c.id, c.max_students, " +
+           "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id AND e.status = 'ACTIVE') " +
+           "FROM courses c WHERE c.id = :courseId",
+           nativeQuery = true)
+    int initialize(@Param("courseId") Long courseId);
+
+    // For a reservation made after its enrollment row was inserted, which must not be counted twice
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "INSERT IGNORE INTO course_seats (course_id, capacity, taken) " +
+           "SELECT c.id, c.max_students, " +
+           "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id AND e.status = 'ACTIVE' " +
+           "AND e.id <> :enrollmentId) " +
+           "FROM courses c WHERE c.id = :courseId",
+           nativeQuery = true)
+    int initializeExcluding(@Param("courseId") Long courseId, @Param("enrollmentId") Long enrollmentId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "course_seats"))
+    @Query(value = "INSERT IGNORE INTO course_seats (course_id, capacity, taken) " +
+           "SELECT c.id, c.max_students, " +
+           "(SELECT COUNT(*) FROM enrollments e WHERE e.course_id = c.id AND e.status = 'ACTIVE') " +
+           "FROM courses c LEFT JOIN course_seats s ON s.course_id = c.id WHERE s.course_id IS NULL",
+           nativeQuery = true)
+    int initializeMissing();
+}
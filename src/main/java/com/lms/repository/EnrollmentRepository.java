@@ -1,18 +1,27 @@
 package com.lms.repository;
 
+import com.lms.dto.EnrollmentView;
+import com.lms.dto.GradebookRow;
 import com.lms.model.Course;
 import com.lms.model.Enrollment;
 import com.lms.model.Enrollment.EnrollmentStatus;
 import com.lms.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
@@ -29,6 +38,50 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     
     Page<Enrollment> findByCourseAndStatus(Course course, EnrollmentStatus status, Pageable pageable);
     
+    @Query("SELECT e.student.id FROM Enrollment e WHERE e.course.id = :courseId AND e.student.id IN :studentIds")
+    List<Long> findEnrolledStudentIds(@Param("courseId") Long courseId,
+                                      @Param("studentIds") Collection<Long> studentIds);
+    
+    // API read model: a course roster with each student's name
+    @Query(value = "SELECT new com.lms.dto.EnrollmentView(e.id, e.course.id, st.id, st.username, st.firstName, " +
+                   "st.lastName, e.status, e.enrollmentDate, e.grade) " +
+                   "FROM Enrollment e JOIN e.student st WHERE e.course.id = :courseId",
+           countQuery = "SELECT COUNT(e) FROM Enrollment e WHERE e.course.id = :courseId")
+    Page<EnrollmentView> findViewsByCourseId(@Param("courseId") Long courseId, Pageable pageable);
+    
+    // Keyset pagination over a course roster in id (enrollment) order
+    @Query("SELECT new com.lms.dto.EnrollmentView(e.id, e.course.id, st.id, st.username, st.firstName, " +
+           "st.lastName, e.status, e.enrollmentDate, e.grade) " +
+           "FROM Enrollment e JOIN e.student st WHERE e.course.id = :courseId AND e.id > :afterId " +
+           "ORDER BY e.id")
+    Slice<EnrollmentView> findCourseWindowAfter(@Param("courseId") Long courseId,
+                                            @Param("afterId") Long afterId,
+                                            Pageable pageable);
+    
+    // Gradebook exports: every enrollment x assignment with the submission, if any,
+    // read through a forward-only cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query("SELECT new com.lms.dto.GradebookRow(c.code, c.title, st.id, st.username, st.firstName, " +
+           "st.lastName, e.status, a.id, a.title, a.dueDate, a.totalPoints, s.submissionDate, s.score, " +
+           "s.feedback) " +
+           "FROM Enrollment e JOIN e.course c JOIN e.student st " +
+           "JOIN Assignment a ON a.course = c " +
+           "LEFT JOIN Submission s ON s.assignment = a AND s.student = st " +
+           "WHERE c.id = :courseId " +
+           "ORDER BY st.lastName, st.firstName, st.id, a.dueDate, a.id")
+    Stream<GradebookRow> streamCourseGradebook(@Param("courseId") Long courseId);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = StreamingQuery.FETCH_SIZE))
+    @Query("SELECT new com.lms.dto.GradebookRow(c.code, c.title, st.id, st.username, st.firstName, " +
+           "st.lastName, e.status, a.id, a.title, a.dueDate, a.totalPoints, s.submissionDate, s.score, " +
+           "s.feedback) " +
+           "FROM Enrollment e JOIN e.course c JOIN e.student st " +
+           "JOIN Assignment a ON a.course = c " +
+           "LEFT JOIN Submission s ON s.assignment = a AND s.student = st " +
+           "WHERE c.startDate >= :from AND c.startDate <= :to " +
+           "ORDER BY c.code, st.lastName, st.firstName, st.id, a.dueDate, a.id")
+    Stream<GradebookRow> streamTermGradebook(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
     @Query("SELECT e FROM Enrollment e WHERE e.course = :course AND e.status = :status")
     List<Enrollment> findEnrollmentsByCourseAndStatus(@Param("course") Course course, 
                                                      @Param("status") EnrollmentStatus status);
@@ -36,6 +89,11 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, Long> {
     @Query("SELECT AVG(e.grade) FROM Enrollment e WHERE e.course = :course AND e.status = 'COMPLETED'")
     Double calculateAverageGradeForCourse(@Param("course") Course course);
     
-    @Query("SELECT COUNT(e) FROM Enrollment e WHERE e.course = :course AND e.status = :status")
-    long countByCourseAndStatus(@Param("course") Course course, @Param("status") EnrollmentStatus status);
+    @Query("SELECT COUNT(e) > 0 FROM Enrollment e, Assignment a WHERE a.id = :assignmentId AND " +
+           "e.course = a.course AND e.student.id = :studentId AND e.status = 'ACTIVE'")
+    boolean isEnrolledForAssignment(@Param("assignmentId") Long assignmentId, @Param("studentId") Long studentId);
+    
+    @Query("SELECT COUNT(DISTINCT e.student.id) FROM Enrollment e " +
+           "WHERE e.course.instructor.id = :instructorId AND e.status = 'ACTIVE'")
+    long countActiveStudentsForInstructor(@Param("instructorId") Long instructorId);
 }
@@ -0,0 +1,175 @@
+package com.lms.repository;
+
+import com.lms.model.StatisticsKey;
+import com.lms.model.StatisticsSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface StatisticsRepository extends JpaRepository<StatisticsSummary, StatisticsKey> {
+
+    // Native statements name the tables they touch, otherwise Hibernate treats them as
+    // touching everything and clears the whole second-level cache on each update. The
+    // tables they read are named too, so pending changes to them are flushed first;
+    // users and courses are left out because they are cached and only reconcile reads them.
+
+    // Incremental updates are single upserts so concurrent events never lose a count
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"))
+    @Query(value = "INSERT INTO statistics_summary (scope, scope_id, item_count, graded_count, score_sum, updated_at) " +
+           "VALUES (:scope, :scopeId, GREATEST(:delta, 0), 0, 0, NOW()) " +
+           "ON DUPLICATE KEY UPDATE item_count = GREATEST(item_count + :delta, 0), updated_at = NOW()",
+           nativeQuery = true)
+    int adjustItemCount(@Param("scope") String scope, @Param("scopeId") Long scopeId, @Param("delta") long delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"))
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "VALUES (:scope, :scopeId, 0, 1, :score, :score, :score, NOW()) " +
+           "ON DUPLICATE KEY UPDATE graded_count = graded_count + 1, score_sum = score_sum + :score, " +
+           "min_score = LEAST(COALESCE(min_score, :score), :score), " +
+           "max_score = GREATEST(COALESCE(max_score, :score), :score), updated_at = NOW()",
+           nativeQuery = true)
+    int recordGrade(@Param("scope") String scope, @Param("scopeId") Long scopeId, @Param("score") BigDecimal score);
+
+    // Exact recomputation for one row, used when a regrade may have moved min/max
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_submissions")})
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "SELECT 'ASSIGNMENT', :assignmentId, COUNT(*), COUNT(s.score), COALESCE(SUM(s.score), 0), " +
+           "MIN(s.score), MAX(s.score), NOW() FROM assignment_submissions s WHERE s.assignment_id = :assignmentId " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), graded_count = VALUES(graded_count), " +
+           "score_sum = VALUES(score_sum), min_score = VALUES(min_score), max_score = VALUES(max_score), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int recomputeAssignment(@Param("assignmentId") Long assignmentId);
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_submissions")})
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "SELECT 'STUDENT', :studentId, COUNT(*), COUNT(s.score), COALESCE(SUM(s.score), 0), " +
+           "MIN(s.score), MAX(s.score), NOW() FROM assignment_submissions s WHERE s.student_id = :studentId " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), graded_count = VALUES(graded_count), " +
+           "score_sum = VALUES(score_sum), min_score = VALUES(min_score), max_score = VALUES(max_score), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int recomputeStudent(@Param("studentId") Long studentId);
+
+    // Cascade deletes: recompute the affected students from the submissions that survive.
+    // These read the rows being deleted, so they must run before the delete is flushed.
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_submissions")})
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "SELECT 'STUDENT', x.student_id, COUNT(o.id), COUNT(o.score), COALESCE(SUM(o.score), 0), " +
+           "MIN(o.score), MAX(o.score), NOW() " +
+           "FROM (SELECT DISTINCT student_id FROM assignment_submissions WHERE assignment_id = :assignmentId) x " +
+           "LEFT JOIN assignment_submissions o ON o.student_id = x.student_id AND o.assignment_id <> :assignmentId " +
+           "GROUP BY x.student_id " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), graded_count = VALUES(graded_count), " +
+           "score_sum = VALUES(score_sum), min_score = VALUES(min_score), max_score = VALUES(max_score), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int recomputeStudentsWithoutAssignment(@Param("assignmentId") Long assignmentId);
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_submissions"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignments")})
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "SELECT 'STUDENT', x.student_id, COUNT(o.id), COUNT(o.score), COALESCE(SUM(o.score), 0), " +
+           "MIN(o.score), MAX(o.score), NOW() " +
+           "FROM (SELECT DISTINCT s.student_id FROM assignment_submissions s " +
+           "JOIN assignments a ON a.id = s.assignment_id WHERE a.course_id = :courseId) x " +
+           "LEFT JOIN (assignment_submissions o JOIN assignments oa ON oa.id = o.assignment_id " +
+           "AND oa.course_id <> :courseId) ON o.student_id = x.student_id " +
+           "GROUP BY x.student_id " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), graded_count = VALUES(graded_count), " +
+           "score_sum = VALUES(score_sum), min_score = VALUES(min_score), max_score = VALUES(max_score), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int recomputeStudentsWithoutCourse(@Param("courseId") Long courseId);
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignments")})
+    @Query(value = "DELETE st FROM statistics_summary st " +
+           "JOIN assignments a ON st.scope = 'ASSIGNMENT' AND a.id = st.scope_id " +
+           "WHERE a.course_id = :courseId",
+           nativeQuery = true)
+    int deleteAssignmentsOfCourse(@Param("courseId") Long courseId);
+
+    // Full reconciliation, one set-based statement per scope
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "enrollments")})
+    @Query(value = "INSERT INTO statistics_summary (scope, scope_id, item_count, graded_count, score_sum, updated_at) " +
+           "SELECT 'COURSE', c.id, COUNT(e.id), 0, 0, NOW() FROM courses c " +
+           "LEFT JOIN enrollments e ON e.course_id = c.id AND e.status = 'ACTIVE' GROUP BY c.id " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), updated_at = NOW()",
+           nativeQuery = true)
+    int reconcileCourses();
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_submissions"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignments")})
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "SELECT 'ASSIGNMENT', a.id, COUNT(s.id), COUNT(s.score), COALESCE(SUM(s.score), 0), " +
+           "MIN(s.score), MAX(s.score), NOW() FROM assignments a " +
+           "LEFT JOIN assignment_submissions s ON s.assignment_id = a.id GROUP BY a.id " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), graded_count = VALUES(graded_count), " +
+           "score_sum = VALUES(score_sum), min_score = VALUES(min_score), max_score = VALUES(max_score), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int reconcileAssignments();
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignment_submissions")})
+    @Query(value = "INSERT INTO statistics_summary " +
+           "(scope, scope_id, item_count, graded_count, score_sum, min_score, max_score, updated_at) " +
+           "SELECT 'STUDENT', u.id, COUNT(s.id), COUNT(s.score), COALESCE(SUM(s.score), 0), " +
+           "MIN(s.score), MAX(s.score), NOW() FROM users u " +
+           "LEFT JOIN assignment_submissions s ON s.student_id = u.id WHERE u.role = 'STUDENT' GROUP BY u.id " +
+           "ON DUPLICATE KEY UPDATE item_count = VALUES(item_count), graded_count = VALUES(graded_count), " +
+           "score_sum = VALUES(score_sum), min_score = VALUES(min_score), max_score = VALUES(max_score), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    int reconcileStudents();
+
+    @Modifying
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "statistics_summary"),
+                 @QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "assignments")})
+    @Query(value = "DELETE st FROM statistics_summary st " +
+           "LEFT JOIN courses c ON st.scope = 'COURSE' AND c.id = st.scope_id " +
+           "LEFT JOIN assignments a ON st.scope = 'ASSIGNMENT' AND a.id = st.scope_id " +
+           "LEFT JOIN users u ON st.scope = 'STUDENT' AND u.id = st.scope_id " +
+           "WHERE c.id IS NULL AND a.id IS NULL AND u.id IS NULL",
+           nativeQuery = true)
+    int deleteOrphans();
+
+    @Modifying
+    @Query("DELETE FROM StatisticsSummary st WHERE st.id.scope = :scope AND st.id.scopeId = :scopeId")
+    int deleteByScope(@Param("scope") StatisticsSummary.Scope scope, @Param("scopeId") Long scopeId);
+}
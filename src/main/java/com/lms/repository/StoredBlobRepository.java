@@ -0,0 +1,40 @@
+package com.lms.repository;
+
+import com.lms.dto.StorageUsage;
+import com.lms.model.StoredBlob;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    // Returns 1 when the blob is new and 2 when an existing one gained a reference
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "INSERT INTO stored_blobs (sha256, size, ref_count, created_at) " +
+           "VALUES (:sha256, :size, 1, NOW()) " +
+           "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1",
+           nativeQuery = true)
+    int addReference(@Param("sha256") String sha256, @Param("size") long size);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "UPDATE stored_blobs SET ref_count = ref_count - 1 WHERE sha256 = :sha256 AND ref_count > 0",
+           nativeQuery = true)
+    int releaseReference(@Param("sha256") String sha256);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stored_blobs"))
+    @Query(value = "DELETE FROM stored_blobs WHERE sha256 = :sha256 AND ref_count = 0", nativeQuery = true)
+    int deleteIfUnreferenced(@Param("sha256") String sha256);
+
+    @Query("SELECT new com.lms.dto.StorageUsage(COUNT(b), COALESCE(SUM(b.refCount), 0), " +
+           "COALESCE(SUM(b.size), 0), COALESCE(SUM(b.size * b.refCount), 0)) FROM StoredBlob b")
+    StorageUsage usage();
+}
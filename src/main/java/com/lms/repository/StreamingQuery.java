@@ -0,0 +1,15 @@
+package com.lms.repository;
+
+/**
+ * Query hint values for repository methods that return a {@code Stream}.
+ */
+final class StreamingQuery {
+
+    // MySQL Connector/J only streams a result set row by row, instead of buffering
+    // all of it in the driver, when the fetch size is Integer.MIN_VALUE. The
+    // connection can run nothing else until the stream is closed.
+    static final String FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+    private StreamingQuery() {
+    }
+}
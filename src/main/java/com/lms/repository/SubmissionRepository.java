@@ -1,15 +1,20 @@
 package com.lms.repository;
 
+import com.lms.dto.GradeSummary;
+import com.lms.dto.PendingSubmissionSummary;
+import com.lms.dto.SubmissionView;
 import com.lms.model.Assignment;
 import com.lms.model.Submission;
 import com.lms.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -27,9 +32,6 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     @Query("SELECT s FROM Submission s WHERE s.assignment = :assignment ORDER BY s.score DESC")
     Page<Submission> findTopSubmissionsByScore(@Param("assignment") Assignment assignment, Pageable pageable);
     
-    @Query("SELECT AVG(s.score) FROM Submission s WHERE s.student = :student")
-    Double calculateStudentAverageScore(@Param("student") User student);
-    
     @Query("SELECT s FROM Submission s WHERE s.assignment = :assignment AND s.score IS NULL")
     List<Submission> findUngradeSubmissions(@Param("assignment") Assignment assignment);
     
@@ -40,4 +42,66 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
            "s.assignment.course.instructor = :instructor AND " +
            "s.score IS NULL")
     List<Submission> findPendingGradingByInstructor(@Param("instructor") User instructor);
+    
+    // API read model
+    // Keyset window, newest first; a null beforeDate starts from the newest
+    @Query("SELECT new com.lms.dto.SubmissionView(s.id, a.id, a.title, st.id, st.firstName, st.lastName, " +
+           "s.submissionDate, s.score, s.feedback) " +
+           "FROM Submission s JOIN s.assignment a JOIN s.student st " +
+           "WHERE st.id = :studentId AND (:beforeDate IS NULL " +
+           "OR s.submissionDate < :beforeDate " +
+           "OR (s.submissionDate = :beforeDate AND s.id < :beforeId)) " +
+           "ORDER BY s.submissionDate DESC, s.id DESC")
+    List<SubmissionView> findViewsByStudentIdBefore(@Param("studentId") Long studentId,
+                                                    @Param("beforeDate") LocalDateTime beforeDate,
+                                                    @Param("beforeId") Long beforeId,
+                                                    Pageable pageable);
+    
+    @Query("SELECT new com.lms.dto.SubmissionView(s.id, a.id, a.title, st.id, st.firstName, st.lastName, " +
+           "s.submissionDate, s.score, s.feedback) " +
+           "FROM Submission s JOIN s.assignment a JOIN a.course c JOIN s.student st " +
+           "WHERE c.instructor.id = :instructorId AND s.score IS NULL ORDER BY s.submissionDate")
+    List<SubmissionView> findPendingGradingViews(@Param("instructorId") Long instructorId);
+    
+    @Query("SELECT COUNT(s) > 0 FROM Submission s WHERE s.id = :submissionId AND " +
+           "(s.student.id = :userId OR s.assignment.course.instructor.id = :userId)")
+    boolean canAccessSubmission(@Param("submissionId") Long submissionId, @Param("userId") Long userId);
+    
+    @Query("SELECT COUNT(s) > 0 FROM Submission s WHERE s.id = :submissionId AND " +
+           "s.assignment.course.instructor.id = :userId")
+    boolean isInstructorOfSubmission(@Param("submissionId") Long submissionId, @Param("userId") Long userId);
+    
+    @Query("SELECT new com.lms.dto.PendingSubmissionSummary(s.id, a.id, a.title, st.id, st.firstName, " +
+           "st.lastName, s.submissionDate) " +
+           "FROM Submission s JOIN s.assignment a JOIN a.course c JOIN s.student st " +
+           "WHERE c.instructor.id = :instructorId AND s.score IS NULL " +
+           "ORDER BY s.submissionDate")
+    List<PendingSubmissionSummary> findPendingGradingSummaries(@Param("instructorId") Long instructorId,
+                                                               Pageable pageable);
+    
+    @Query("SELECT new com.lms.dto.GradeSummary(s.id, a.id, a.title, c.title, s.score, a.totalPoints, " +
+           "s.updatedAt) " +
+           "FROM Submission s JOIN s.assignment a JOIN a.course c " +
+           "WHERE s.student.id = :studentId AND s.score IS NOT NULL " +
+           "ORDER BY s.updatedAt DESC")
+    List<GradeSummary> findRecentGradeSummaries(@Param("studentId") Long studentId, Pageable pageable);
+
+    // Stored files of the submissions an assignment or course delete cascades to
+    @Query("SELECT s.fileUrl FROM Submission s WHERE s.assignment.id = :assignmentId AND s.fileUrl IS NOT NULL")
+    List<String> findFileUrlsByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    @Query("SELECT s.fileUrl FROM Submission s WHERE s.assignment.course.id = :courseId AND s.fileUrl IS NOT NULL")
+    List<String> findFileUrlsByCourseId(@Param("courseId") Long courseId);
+
+    // Storage migration: keyset batches over submissions with a file, then a guarded repoint
+    @Query("SELECT s FROM Submission s WHERE s.id > :afterId AND s.fileUrl IS NOT NULL ORDER BY s.id")
+    List<Submission> findWithFileAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Submission s SET s.fileUrl = :newFileUrl, s.contentHash = :contentHash " +
+           "WHERE s.id = :id AND s.fileUrl = :oldFileUrl")
+    int replaceFile(@Param("id") Long id,
+                    @Param("oldFileUrl") String oldFileUrl,
+                    @Param("newFileUrl") String newFileUrl,
+                    @Param("contentHash") String contentHash);
 }
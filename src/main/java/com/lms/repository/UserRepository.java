@@ -1,12 +1,19 @@
 package com.lms.repository;
 
+import com.lms.dto.UserSummary;
 import com.lms.model.User;
 import com.lms.model.User.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +22,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByEmail(String email);
     
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "lms.query.user")})
     Optional<User> findByUsername(String username);
     
     boolean existsByEmail(String email);
@@ -23,12 +32,38 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     List<User> findByRole(Role role);
     
-    @Query("SELECT u FROM User u WHERE u.role = :role AND " +
-           "(LOWER(u.firstName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(u.email) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
-    List<User> searchUsersByRoleAndTerm(@Param("role") Role role, @Param("searchTerm") String searchTerm);
+    @Query(value = "SELECT new com.lms.dto.UserSummary(u.id, u.username, u.email, u.firstName, u.lastName, u.role) " +
+                   "FROM User u WHERE :role IS NULL OR u.role = :role",
+           countQuery = "SELECT COUNT(u) FROM User u WHERE :role IS NULL OR u.role = :role")
+    Page<UserSummary> findSummaries(@Param("role") Role role, Pageable pageable);
+    
+    // Keyset window for the streamed export; role may be null for every user
+    @Query("SELECT new com.lms.dto.UserSummary(u.id, u.username, u.email, u.firstName, u.lastName, u.role) " +
+           "FROM User u WHERE (:role IS NULL OR u.role = :role) AND u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("role") Role role,
+                                         @Param("afterId") Long afterId,
+                                         Pageable pageable);
+    
+    // Batch lookups for roster imports
+    @Query("SELECT new com.lms.dto.UserSummary(u.id, u.username, u.email, u.firstName, u.lastName, u.role) " +
+           "FROM User u WHERE u.username IN :usernames")
+    List<UserSummary> findSummariesByUsernameIn(@Param("usernames") Collection<String> usernames);
+    
+    @Query("SELECT new com.lms.dto.UserSummary(u.id, u.username, u.email, u.firstName, u.lastName, u.role) " +
+           "FROM User u WHERE u.email IN :emails")
+    List<UserSummary> findSummariesByEmailIn(@Param("emails") Collection<String> emails);
+    
+    // Keyset-paged feed for rebuilding the in-memory user directory
+    @Query("SELECT new com.lms.dto.UserSummary(u.id, u.username, u.email, u.firstName, u.lastName, u.role) " +
+           "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
     
     @Query("SELECT COUNT(u) FROM User u WHERE u.role = :role")
     long countByRole(@Param("role") Role role);
+    
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+    
+    @Query("SELECT u.securityVersion FROM User u WHERE u.id = :userId")
+    Optional<Integer> findSecurityVersionById(@Param("userId") Long userId);
 }
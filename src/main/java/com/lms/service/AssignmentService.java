@@ -1,5 +1,8 @@
 package com.lms.service;
 
+import com.lms.dto.AssignmentView;
+import com.lms.dto.CursorSlice;
+import com.lms.exception.InvalidCursorException;
 import com.lms.model.Assignment;
 import com.lms.model.Course;
 import com.lms.model.Submission;
@@ -8,10 +11,12 @@ import com.lms.repository.CourseRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Service
@@ -21,17 +26,23 @@ public class AssignmentService {
     private final AssignmentRepository assignmentRepository;
     private final CourseRepository courseRepository;
     private final EmailService emailService;
+    private final StatisticsService statisticsService;
+    private final SubmissionService submissionService;
 
     @Autowired
     public AssignmentService(AssignmentRepository assignmentRepository,
                            CourseRepository courseRepository,
-                           EmailService emailService) {
+                           EmailService emailService,
+                           StatisticsService statisticsService,
+                           SubmissionService submissionService) {
         this.assignmentRepository = assignmentRepository;
         this.courseRepository = courseRepository;
         this.emailService = emailService;
+        this.statisticsService = statisticsService;
+        this.submissionService = submissionService;
     }
 
-    public Assignment createAssignment(Long courseId, Assignment assignment) {
+    public AssignmentView createAssignment(Long courseId, Assignment assignment) {
         Course course = courseRepository.findById(courseId)
             .orElseThrow(() -> new RuntimeException("Course not found"));
 
@@ -42,10 +53,10 @@ public class AssignmentService {
         course.getEnrollments().forEach(enrollment ->
             emailService.sendNewAssignmentNotification(enrollment.getStudent(), savedAssignment));
         
-        return savedAssignment;
+        return AssignmentView.from(savedAssignment);
     }
 
-    public Assignment updateAssignment(Long assignmentId, Assignment assignmentDetails) {
+    public AssignmentView updateAssignment(Long assignmentId, Assignment assignmentDetails) {
         Assignment assignment = assignmentRepository.findById(assignmentId)
             .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
@@ -60,7 +71,7 @@ public class AssignmentService {
         assignment.getCourse().getEnrollments().forEach(enrollment ->
             emailService.sendAssignmentUpdateNotification(enrollment.getStudent(), updatedAssignment));
         
-        return updatedAssignment;
+        return AssignmentView.from(updatedAssignment);
     }
 
     public void deleteAssignment(Long assignmentId) {
@@ -71,25 +82,53 @@ public class AssignmentService {
         assignment.getCourse().getEnrollments().forEach(enrollment ->
             emailService.sendAssignmentDeletedNotification(enrollment.getStudent(), assignment));
             
+        statisticsService.onAssignmentDeleting(assignmentId);
+        submissionService.onAssignmentDeleting(assignmentId);
         assignmentRepository.delete(assignment);
     }
 
-    public List<Assignment> getUpcomingAssignments(Long courseId) {
-        Course course = courseRepository.findById(courseId)
+    @Transactional(readOnly = true)
+    public List<AssignmentView> getUpcomingAssignments(Long courseId) {
+        courseRepository.findById(courseId)
             .orElseThrow(() -> new RuntimeException("Course not found"));
-            
-        return assignmentRepository.findUpcomingAssignments(course, LocalDateTime.now());
+        return assignmentRepository.findUpcomingViews(courseId, LocalDateTime.now());
     }
 
-    public Page<Assignment> getCourseAssignments(Long courseId, Pageable pageable) {
-        Course course = courseRepository.findById(courseId)
+    @Transactional(readOnly = true)
+    public Page<AssignmentView> getCourseAssignments(Long courseId, Pageable pageable) {
+        courseRepository.findById(courseId)
             .orElseThrow(() -> new RuntimeException("Course not found"));
-            
-        return assignmentRepository.findByCourse(course, pageable);
+        return assignmentRepository.findViewsByCourseId(courseId, pageable);
     }
 
+    @Transactional(readOnly = true)
+    public CursorSlice<AssignmentView> scrollCourseAssignments(Long courseId, String cursor, int size) {
+        PageCursor.Position after = PageCursor.decode(cursor);
+        Pageable window = PageCursor.firstWindow(size);
+        Slice<AssignmentView> slice;
+        if (after == null) {
+            slice = assignmentRepository.findCourseWindow(courseId, window);
+        } else {
+            LocalDateTime dueDate;
+            try {
+                dueDate = LocalDateTime.parse(after.sortKey());
+            } catch (DateTimeParseException e) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            slice = assignmentRepository.findCourseWindowAfter(courseId, dueDate, after.id(), window);
+        }
+        return PageCursor.slice(slice,
+            assignment -> PageCursor.encode(assignment.getDueDate().toString(), assignment.getId()));
+    }
+
+    @Transactional(readOnly = true)
     public Double calculateAverageScore(Long assignmentId) {
-        return assignmentRepository.calculateAverageScore(assignmentId);
+        return statisticsService.getAssignmentAverageScore(assignmentId);
+    }
+
+    @Transactional(readOnly = true)
+    public long countSubmissions(Long assignmentId) {
+        return statisticsService.getSubmissionCount(assignmentId);
     }
 
     private void validateAssignment(Assignment assignment) {
@@ -0,0 +1,112 @@
+package com.lms.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Briefly remembers ownership decisions per (user, check, resource) so repeated
+ * calls from the same client don't re-run the authorization query. Services
+ * invalidate entries when enrollments or courses change. When max-users is
+ * reached, users whose decisions have all expired are dropped first, then the
+ * least recently seen tenth, so active users keep their cached answers.
+ */
+@Component
+public class AuthorizationCache {
+
+    private final Map<Long, UserDecisions> decisions = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final long ttlMillis;
+    private final int maxUsers;
+
+    public AuthorizationCache(@Value("${security.authorization-cache.ttl:30000}") long ttlMillis,
+                              @Value("${security.authorization-cache.max-users:50000}") int maxUsers) {
+        this.ttlMillis = ttlMillis;
+        this.maxUsers = maxUsers;
+    }
+
+    public boolean get(Long userId, String check, Long resourceId, BooleanSupplier loader) {
+        if (ttlMillis <= 0) {
+            return loader.getAsBoolean();
+        }
+        String key = check + ':' + resourceId;
+        long now = System.currentTimeMillis();
+
+        UserDecisions userDecisions = decisions.get(userId);
+        if (userDecisions != null) {
+            userDecisions.touchedAt = System.nanoTime();
+            Entry entry = userDecisions.entries.get(key);
+            if (entry != null && entry.expiresAt > now) {
+                return entry.allowed;
+            }
+        }
+
+        boolean allowed = loader.getAsBoolean();
+        if (userDecisions == null) {
+            if (decisions.size() >= maxUsers) {
+                evict(now);
+            }
+            userDecisions = decisions.computeIfAbsent(userId, id -> new UserDecisions());
+        }
+        userDecisions.entries.put(key, new Entry(allowed, now + ttlMillis));
+        return allowed;
+    }
+
+    public void invalidateUser(Long userId) {
+        clearNowAndAfterCommit(() -> decisions.remove(userId));
+    }
+
+    public void invalidateUsers(Collection<Long> userIds) {
+        clearNowAndAfterCommit(() -> userIds.forEach(decisions::remove));
+    }
+
+    public void invalidateAll() {
+        clearNowAndAfterCommit(decisions::clear);
+    }
+
+    // One thread sheds at a time; others carry on and may briefly overshoot the limit
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            decisions.values().removeIf(user -> user.entries.values().stream().allMatch(e -> e.expiresAt <= now));
+
+            int excess = decisions.size() - maxUsers + Math.max(1, maxUsers / 10);
+            if (excess <= 0) {
+                return;
+            }
+            long[] touched = decisions.values().stream()
+                .mapToLong(user -> user.touchedAt)
+                .sorted()
+                .toArray();
+            if (touched.length == 0) {
+                return;
+            }
+            long cutoff = touched[Math.min(excess, touched.length) - 1];
+            decisions.values().removeIf(user -> user.touchedAt <= cutoff);
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // Clear once the change is visible, otherwise a concurrent check could re-cache the old answer
+    private static void clearNowAndAfterCommit(Runnable action) {
+        action.run();
+        TransactionHooks.afterCommit(action);
+    }
+
+    private record Entry(boolean allowed, long expiresAt) {
+    }
+
+    private static final class UserDecisions {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        // nanoTime rather than millis, so users seen in the same millisecond still order
+        volatile long touchedAt = System.nanoTime();
+    }
+}
@@ -1,14 +1,20 @@
 package com.lms.service;
 
+import com.lms.dto.BookView;
 import com.lms.model.Book;
 import com.lms.repository.BookRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.Optional;
 
 @Service
+@Transactional
 public class BookService {
     
     private final BookRepository bookRepository;
@@ -18,16 +24,27 @@ public class BookService {
         this.bookRepository = bookRepository;
     }
 
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    /**
+     * Feeds the whole catalog to {@code sink} in title order, one keyset window
+     * at a time. Each window is its own read, so a slow client never pins a
+     * connection while the rows are written.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamAllBooks(RowSink<BookView> sink) throws IOException {
+        Pageable window = PageRequest.of(0, RowSink.WINDOW_SIZE);
+        RowSink.drainWindows(last -> last == null
+                ? bookRepository.findViewsAfter("", 0L, window)
+                : bookRepository.findViewsAfter(last.getTitle(), last.getId(), window),
+            RowSink.WINDOW_SIZE, sink);
     }
 
-    public Optional<Book> getBookById(Long id) {
-        return bookRepository.findById(id);
+    @Transactional(readOnly = true)
+    public Optional<BookView> getBookById(Long id) {
+        return bookRepository.findById(id).map(BookView::from);
     }
 
-    public Book saveBook(Book book) {
-        return bookRepository.save(book);
+    public BookView saveBook(Book book) {
+        return BookView.from(bookRepository.save(book));
     }
 
     public void deleteBook(Long id) {
@@ -0,0 +1,330 @@
+package com.lms.service;
+
+import com.lms.dto.SubmissionView;
+import com.lms.dto.UploadSessionRequest;
+import com.lms.dto.UploadSessionView;
+import com.lms.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resumable uploads for files too large for a single multipart request. The
+ * client opens a session, PUTs numbered chunks in any order and in parallel,
+ * and completes it; a dropped connection costs at most the chunks in flight.
+ *
+ * <p>Each session is one preallocated file that chunks are written into at
+ * their offsets through a fixed-size buffer, so memory use does not depend on
+ * the file size. Chunks are checked against an optional per-chunk SHA-256,
+ * the whole file against the one given when the session was opened, and the
+ * verified file is then linked into storage by
+ * {@link SubmissionService#submitAssignment(Long, User, Path, String, byte[])}.
+ *
+ * <p>Sessions are kept in memory and expire when idle; a restart discards
+ * them and their data.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+
+    private final SubmissionService submissionService;
+    private final Path sessionLocation;
+    private final long maxFileSize;
+    private final int defaultChunkSize;
+    private final int maxChunkSize;
+    private final int maxSessionsPerStudent;
+    private final long sessionTtl;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ChunkedUploadService(SubmissionService submissionService,
+                                @Value("${file.upload-dir}") String uploadDir,
+                                @Value("${upload.chunked.max-file-size:10737418240}") long maxFileSize,
+                                @Value("${upload.chunked.chunk-size:8388608}") int defaultChunkSize,
+                                @Value("${upload.chunked.max-chunk-size:67108864}") int maxChunkSize,
+                                @Value("${upload.chunked.max-sessions-per-student:3}") int maxSessionsPerStudent,
+                                @Value("${upload.chunked.session-ttl:86400000}") long sessionTtl) {
+        this.submissionService = submissionService;
+        // Under the upload directory so completion is a hard link on the same file system
+        this.sessionLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve("sessions");
+        this.maxFileSize = maxFileSize;
+        this.defaultChunkSize = defaultChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.maxSessionsPerStudent = maxSessionsPerStudent;
+        this.sessionTtl = sessionTtl;
+
+        try {
+            // Sessions from a previous run cannot be resumed
+            FileSystemUtils.deleteRecursively(sessionLocation);
+            Files.createDirectories(sessionLocation);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the directory for chunked uploads.", ex);
+        }
+    }
+
+    public UploadSessionView createSession(Long assignmentId, User student, UploadSessionRequest request)
+            throws IOException {
+        submissionService.checkSubmittable(assignmentId, student);
+
+        long size = request.getSize();
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : defaultChunkSize;
+        if (size <= 0 || size > maxFileSize) {
+            throw new RuntimeException("File size must be between 1 and " + maxFileSize + " bytes");
+        }
+        if (chunkSize < MIN_CHUNK_SIZE || chunkSize > maxChunkSize) {
+            throw new RuntimeException("Chunk size must be between " + MIN_CHUNK_SIZE + " and " + maxChunkSize + " bytes");
+        }
+        long openSessions = sessions.values().stream()
+            .filter(s -> s.studentId.equals(student.getId()))
+            .count();
+        if (openSessions >= maxSessionsPerStudent) {
+            throw new RuntimeException("Too many open uploads; complete or cancel one first");
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path dataFile = sessionLocation.resolve(id);
+        // Sparse on most file systems: only what has been written takes space
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(1), size - 1);
+        }
+        UploadSession session = new UploadSession(id, assignmentId, student.getId(), request.getFileName(), size,
+            chunkSize, request.getSha256() != null ? request.getSha256().toLowerCase() : null, dataFile);
+        sessions.put(id, session);
+        return session.toView();
+    }
+
+    public UploadSessionView getSession(Long assignmentId, Long studentId, String uploadId) {
+        return find(assignmentId, studentId, uploadId).toView();
+    }
+
+    /**
+     * Writes chunk {@code index} at its offset. The body must be exactly the
+     * chunk's length; {@code expectedSha256} is optional. Sending a chunk again
+     * overwrites it.
+     */
+    public UploadSessionView writeChunk(Long assignmentId, Long studentId, String uploadId, int index,
+                                        InputStream body, String expectedSha256) throws IOException {
+        UploadSession session = find(assignmentId, studentId, uploadId);
+        if (index < 0 || index >= session.chunkCount) {
+            throw new RuntimeException("Chunk " + index + " is out of range (0-" + (session.chunkCount - 1) + ")");
+        }
+        long position = (long) index * session.chunkSize;
+        long length = Math.min(session.chunkSize, session.size - position);
+
+        synchronized (session) {
+            if (session.completing) {
+                throw new RuntimeException("Upload is being completed");
+            }
+            session.activeWrites++;
+        }
+        boolean accepted = false;
+        try {
+            MessageDigest digest = sha256Digest();
+            byte[] array = new byte[BUFFER_SIZE];
+            long written = 0;
+            try (FileChannel channel = FileChannel.open(session.dataFile, StandardOpenOption.WRITE)) {
+                int read;
+                while ((read = body.read(array)) != -1) {
+                    if (written + read > length) {
+                        throw new RuntimeException("Chunk " + index + " is longer than " + length + " bytes");
+                    }
+                    digest.update(array, 0, read);
+                    ByteBuffer buffer = ByteBuffer.wrap(array, 0, read);
+                    while (buffer.hasRemaining()) {
+                        written += channel.write(buffer, position + written);
+                    }
+                }
+            }
+            if (written != length) {
+                throw new RuntimeException("Chunk " + index + " has " + written + " bytes, expected " + length);
+            }
+            String actual = HexFormat.of().formatHex(digest.digest());
+            if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(actual)) {
+                throw new RuntimeException("Chunk " + index + " does not match its checksum");
+            }
+            accepted = true;
+        } finally {
+            synchronized (session) {
+                session.activeWrites--;
+                // A failed resend may have overwritten part of a chunk received earlier
+                session.received.set(index, accepted);
+                session.touch();
+            }
+        }
+        return session.toView();
+    }
+
+    /**
+     * Verifies that every chunk has arrived and the file matches its declared
+     * checksum, then submits it. If submitting fails (deadline passed, database
+     * error) the session stays open and can be completed again, unless storage
+     * had to move the data because the file system has no hard links; a
+     * checksum mismatch discards it.
+     */
+    public SubmissionView complete(Long assignmentId, User student, String uploadId) throws IOException {
+        UploadSession session = find(assignmentId, student.getId(), uploadId);
+        synchronized (session) {
+            if (session.completing) {
+                throw new RuntimeException("Upload is already being completed");
+            }
+            if (session.activeWrites > 0) {
+                throw new RuntimeException("Chunks are still being written");
+            }
+            int missing = session.chunkCount - session.received.cardinality();
+            if (missing > 0) {
+                throw new RuntimeException("Upload is missing " + missing + " chunks");
+            }
+            session.completing = true;
+        }
+        boolean submitted = false;
+        try {
+            byte[] sha256 = digest(session.dataFile);
+            if (session.sha256 != null && !session.sha256.equals(HexFormat.of().formatHex(sha256))) {
+                discard(session);
+                throw new RuntimeException("Uploaded file does not match its checksum");
+            }
+            SubmissionView submission = submissionService.submitAssignment(assignmentId, student,
+                session.dataFile, session.fileName, sha256);
+            submitted = true;
+            return submission;
+        } finally {
+            // Discarded before writes are let back in: once submitted, the data file
+            // may be the same inode as the stored object
+            if (submitted || !Files.exists(session.dataFile)) {
+                discard(session);
+            }
+            synchronized (session) {
+                session.completing = false;
+                session.touch();
+            }
+        }
+    }
+
+    public void cancel(Long assignmentId, Long studentId, String uploadId) {
+        discard(find(assignmentId, studentId, uploadId));
+    }
+
+    @Scheduled(fixedDelayString = "${upload.chunked.purge-interval:600000}")
+    public void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - sessionTtl;
+        for (UploadSession session : sessions.values()) {
+            synchronized (session) {
+                if (session.lastTouched >= cutoff || session.completing || session.activeWrites > 0) {
+                    continue;
+                }
+            }
+            logger.info("Discarding idle upload {} ({} of {} chunks received)",
+                session.id, session.received.cardinality(), session.chunkCount);
+            discard(session);
+        }
+    }
+
+    // Other students' sessions are reported as missing, not forbidden
+    private UploadSession find(Long assignmentId, Long studentId, String uploadId) {
+        UploadSession session = sessions.get(uploadId);
+        if (session == null || !session.studentId.equals(studentId) || !session.assignmentId.equals(assignmentId)) {
+            throw new RuntimeException("Upload not found");
+        }
+        return session;
+    }
+
+    private void discard(UploadSession session) {
+        sessions.remove(session.id);
+        try {
+            Files.deleteIfExists(session.dataFile);
+        } catch (IOException ex) {
+            logger.warn("Could not delete upload data {}", session.dataFile, ex);
+        }
+    }
+
+    private static byte[] digest(Path file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    // Mutable state is guarded by the session's monitor
+    private static final class UploadSession {
+        final String id;
+        final Long assignmentId;
+        final Long studentId;
+        final String fileName;
+        final long size;
+        final int chunkSize;
+        final int chunkCount;
+        final String sha256;
+        final Path dataFile;
+        final BitSet received;
+        int activeWrites;
+        boolean completing;
+        volatile long lastTouched = System.currentTimeMillis();
+
+        UploadSession(String id, Long assignmentId, Long studentId, String fileName, long size, int chunkSize,
+                      String sha256, Path dataFile) {
+            this.id = id;
+            this.assignmentId = assignmentId;
+            this.studentId = studentId;
+            this.fileName = fileName;
+            this.size = size;
+            this.chunkSize = chunkSize;
+            this.chunkCount = (int) ((size + chunkSize - 1) / chunkSize);
+            this.sha256 = sha256;
+            this.dataFile = dataFile;
+            this.received = new BitSet(chunkCount);
+        }
+
+        void touch() {
+            lastTouched = System.currentTimeMillis();
+        }
+
+        synchronized UploadSessionView toView() {
+            int contiguous = received.nextClearBit(0);
+            List<Integer> missing = new ArrayList<>(chunkCount - received.cardinality());
+            for (int i = received.nextClearBit(0); i < chunkCount; i = received.nextClearBit(i + 1)) {
+                missing.add(i);
+            }
+            return new UploadSessionView(id, fileName, size, chunkSize, chunkCount, received.cardinality(),
+                Math.min((long) contiguous * chunkSize, size), missing);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.lms.service;
+
+import com.lms.dto.CourseSearchView;
+import com.lms.model.Course;
+import com.lms.repository.CourseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over course code, title and description. Results
+ * are ranked with BM25 using per-field weights; the last query term also
+ * matches as a prefix so partial codes like "cs10" work.
+ *
+ * <p>The index is rebuilt from the database on startup and kept current by
+ * {@link CourseService} after each committed create, update or delete.
+ */
+@Component
+public class CourseSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSearchIndex.class);
+
+    private static final float CODE_WEIGHT = 4f;
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_SCORED_EXPANSIONS = 64;
+
+    private final CourseRepository courseRepository;
+    private final int rebuildBatchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Contents contents = new Contents();
+    // Changes that arrive while a rebuild is reading the database, replayed onto
+    // its result before the swap; a null document is a removal
+    private Map<Long, Document> changesDuringRebuild;
+
+    public CourseSearchIndex(CourseRepository courseRepository,
+                             @Value("${search.courses.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.courseRepository = courseRepository;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Contents rebuilt = new Contents();
+        int courses;
+        int terms;
+        try {
+            long afterId = 0;
+            List<CourseSearchView> batch;
+            do {
+                batch = courseRepository.findSearchViews(afterId, PageRequest.of(0, rebuildBatchSize));
+                for (CourseSearchView view : batch) {
+                    rebuilt.put(view.getId(), analyze(view.getCode(), view.getTitle(), view.getDescription()));
+                    afterId = view.getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                // A batch may have been read before one of these commits
+                changesDuringRebuild.forEach(rebuilt::apply);
+                contents = rebuilt;
+                courses = rebuilt.documents.size();
+                terms = rebuilt.postings.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Course search index built with {} courses and {} terms in {} ms",
+            courses, terms, System.currentTimeMillis() - start);
+    }
+
+    public void index(Course course) {
+        change(course.getId(), analyze(course.getCode(), course.getTitle(), course.getDescription()));
+    }
+
+    public void remove(Long courseId) {
+        change(courseId, null);
+    }
+
+    private void change(Long courseId, Document document) {
+        lock.writeLock().lock();
+        try {
+            contents.apply(courseId, document);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(courseId, document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return contents.documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns one page of matching course ids, best match first, plus the total
+     * number of matches. A blank query matches every course in id order.
+     */
+    public SearchResult search(String query, int offset, int limit) {
+        List<String> terms = TextAnalyzer.analyze(query);
+
+        lock.readLock().lock();
+        try {
+            if (terms.isEmpty()) {
+                return contents.allInIdOrder(offset, limit);
+            }
+
+            Map<Long, Double> scores = null;
+            for (int i = 0; i < terms.size(); i++) {
+                boolean last = i == terms.size() - 1;
+                Map<Long, Double> termScores = contents.scoreTerm(terms.get(i), last);
+                // Every query term has to match; intersect as we go
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + termScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new SearchResult(Collections.emptyList(), 0);
+                }
+            }
+
+            List<Map.Entry<Long, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int byScore = Double.compare(b.getValue(), a.getValue());
+                return byScore != 0 ? byScore : Long.compare(a.getKey(), b.getKey());
+            });
+            List<Long> page = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = offset; i < ranked.size() && page.size() < limit; i++) {
+                page.add(ranked.get(i).getKey());
+            }
+            return new SearchResult(page, ranked.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Document analyze(String code, String title, String description) {
+        Map<String, Float> weights = new HashMap<>();
+        int length = 0;
+
+        String normalizedCode = TextAnalyzer.normalizeCode(code);
+        if (!normalizedCode.isEmpty()) {
+            weights.merge(normalizedCode, CODE_WEIGHT, Float::sum);
+            length++;
+        }
+        length += addField(weights, TextAnalyzer.analyze(code), CODE_WEIGHT);
+        length += addField(weights, TextAnalyzer.analyze(title), TITLE_WEIGHT);
+        length += addField(weights, TextAnalyzer.analyze(description), DESCRIPTION_WEIGHT);
+
+        String[] terms = weights.keySet().toArray(new String[0]);
+        float[] termWeights = new float[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            termWeights[i] = weights.get(terms[i]);
+        }
+        return new Document(terms, termWeights, Math.max(1, length));
+    }
+
+    private static int addField(Map<String, Float> weights, List<String> terms, float weight) {
+        for (String term : terms) {
+            weights.merge(term, weight, Float::sum);
+        }
+        return terms.size();
+    }
+
+    // The documents and postings one index generation is made of
+    private static final class Contents {
+        final NavigableMap<Long, Document> documents = new TreeMap<>();
+        final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        double totalLength;
+
+        void apply(Long courseId, Document document) {
+            if (document == null) {
+                remove(courseId);
+            } else {
+                put(courseId, document);
+            }
+        }
+
+        void put(Long courseId, Document document) {
+            remove(courseId);
+            for (int i = 0; i < document.terms.length; i++) {
+                postings.computeIfAbsent(document.terms[i], t -> new HashMap<>()).put(courseId, document.weights[i]);
+            }
+            totalLength += document.length;
+            documents.put(courseId, document);
+        }
+
+        void remove(Long courseId) {
+            Document previous = documents.remove(courseId);
+            if (previous == null) {
+                return;
+            }
+            totalLength -= previous.length;
+            for (String term : previous.terms) {
+                Map<Long, Float> docs = postings.get(term);
+                if (docs != null) {
+                    docs.remove(courseId);
+                    if (docs.isEmpty()) {
+                        postings.remove(term);
+                    }
+                }
+            }
+        }
+
+        /**
+         * BM25 scores for one query term. As the last term it also matches as a
+         * prefix; only the completions found in the most courses are scored, the
+         * rest still match with a score of zero so the total stays exact.
+         */
+        Map<Long, Double> scoreTerm(String term, boolean allowPrefix) {
+            List<String> expansions = new ArrayList<>();
+            if (allowPrefix) {
+                expansions.addAll(postings.subMap(term, false, term + Character.MAX_VALUE, false).keySet());
+                expansions.sort((a, b) -> Integer.compare(postings.get(b).size(), postings.get(a).size()));
+            }
+            if (postings.containsKey(term)) {
+                expansions.add(0, term);
+            }
+
+            Map<Long, Double> scores = new HashMap<>();
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 1 : totalLength / documentCount;
+            for (int i = 0; i < expansions.size(); i++) {
+                Map<Long, Float> docs = postings.get(expansions.get(i));
+                if (i >= MAX_SCORED_EXPANSIONS) {
+                    for (Long courseId : docs.keySet()) {
+                        scores.putIfAbsent(courseId, 0.0);
+                    }
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+                for (Map.Entry<Long, Float> posting : docs.entrySet()) {
+                    double tf = posting.getValue();
+                    double norm = 1 - B + B * documents.get(posting.getKey()).length / averageLength;
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * norm);
+                    scores.merge(posting.getKey(), score, Math::max);
+                }
+            }
+            return scores;
+        }
+
+        SearchResult allInIdOrder(int offset, int limit) {
+            List<Long> page = new ArrayList<>(Math.min(limit, documents.size()));
+            Iterator<Long> it = documents.keySet().iterator();
+            for (int skipped = 0; skipped < offset && it.hasNext(); skipped++) {
+                it.next();
+            }
+            while (it.hasNext() && page.size() < limit) {
+                page.add(it.next());
+            }
+            return new SearchResult(page, documents.size());
+        }
+    }
+
+    // Distinct terms with their field-weighted frequency, and the token count used for length normalization
+    private record Document(String[] terms, float[] weights, int length) {
+    }
+
+    public record SearchResult(List<Long> ids, long total) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.lms.service;
+
+import com.lms.model.CourseSeats;
+import com.lms.repository.CourseSeatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reserves and releases course seats with a single conditional update on the
+ * course's counter row. Methods join the caller's transaction, so a seat taken
+ * for an enrollment that later fails is given back by the rollback.
+ */
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class CourseSeatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSeatService.class);
+
+    private final CourseSeatsRepository courseSeatsRepository;
+
+    @Autowired
+    public CourseSeatService(CourseSeatsRepository courseSeatsRepository) {
+        this.courseSeatsRepository = courseSeatsRepository;
+    }
+
+    /**
+     * Takes a seat for {@code enrollmentId} if one is free. The row stays
+     * locked until the caller commits, so reserve as late as possible in the
+     * transaction; the enrollment may already have been inserted.
+     */
+    public boolean reserve(Long courseId, Long enrollmentId) {
+        if (courseSeatsRepository.reserve(courseId) == 1) {
+            return true;
+        }
+        if (courseSeatsRepository.existsById(courseId)) {
+            return false;
+        }
+        // Course predates seat tracking; seed its counter from the other enrollments and try once more
+        courseSeatsRepository.initializeExcluding(courseId, enrollmentId);
+        return courseSeatsRepository.reserve(courseId) == 1;
+    }
+
+    /**
+     * Takes as many of {@code requested} seats as are free, all under one row
+     * lock, and returns how many were granted. Used by bulk imports.
+     */
+    public int reserveUpTo(Long courseId, int requested) {
+        if (requested <= 0) {
+            return 0;
+        }
+        CourseSeats seats = courseSeatsRepository.findForUpdate(courseId).orElse(null);
+        if (seats == null) {
+            courseSeatsRepository.initialize(courseId);
+            seats = courseSeatsRepository.findForUpdate(courseId)
+                .orElseThrow(() -> new RuntimeException("Course not found"));
+        }
+        int granted = Math.max(0, Math.min(requested, seats.getCapacity() - seats.getTaken()));
+        seats.setTaken(seats.getTaken() + granted);
+        return granted;
+    }
+
+    public void release(Long courseId) {
+        courseSeatsRepository.release(courseId, 1);
+    }
+
+    public void capacityChanged(Long courseId, int capacity) {
+        courseSeatsRepository.setCapacity(courseId, capacity);
+    }
+
+    public void onCourseDeleted(Long courseId) {
+        courseSeatsRepository.deleteById(courseId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initializeMissing() {
+        int seeded = courseSeatsRepository.initializeMissing();
+        if (seeded > 0) {
+            logger.info("Seeded seat counters for {} courses", seeded);
+        }
+    }
+}
@@ -1,18 +1,28 @@
 package com.lms.service;
 
+import com.lms.dto.CourseView;
+import com.lms.dto.CursorSlice;
+import com.lms.dto.EnrollmentView;
 import com.lms.model.Course;
 import com.lms.model.Enrollment;
 import com.lms.model.User;
 import com.lms.repository.CourseRepository;
 import com.lms.repository.EnrollmentRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -21,24 +31,42 @@ public class CourseService {
     private final CourseRepository courseRepository;
     private final EnrollmentRepository enrollmentRepository;
     private final EmailService emailService;
+    private final AuthorizationCache authorizationCache;
+    private final StatisticsService statisticsService;
+    private final CourseSearchIndex courseSearchIndex;
+    private final CourseSeatService courseSeatService;
+    private final SubmissionService submissionService;
 
     @Autowired
     public CourseService(CourseRepository courseRepository, 
                         EnrollmentRepository enrollmentRepository,
-                        EmailService emailService) {
+                        EmailService emailService,
+                        AuthorizationCache authorizationCache,
+                        StatisticsService statisticsService,
+                        CourseSearchIndex courseSearchIndex,
+                        CourseSeatService courseSeatService,
+                        SubmissionService submissionService) {
         this.courseRepository = courseRepository;
         this.enrollmentRepository = enrollmentRepository;
         this.emailService = emailService;
+        this.authorizationCache = authorizationCache;
+        this.statisticsService = statisticsService;
+        this.courseSearchIndex = courseSearchIndex;
+        this.courseSeatService = courseSeatService;
+        this.submissionService = submissionService;
     }
 
-    public Course createCourse(Course course) {
+    public CourseView createCourse(Course course) {
         validateCourse(course);
         Course savedCourse = courseRepository.save(course);
+        courseSeatService.capacityChanged(savedCourse.getId(), savedCourse.getMaxStudents());
+        authorizationCache.invalidateUser(course.getInstructor().getId());
+        TransactionHooks.afterCommit(() -> courseSearchIndex.index(savedCourse));
         emailService.sendCourseCreationNotification(course.getInstructor(), savedCourse);
-        return savedCourse;
+        return CourseView.from(savedCourse);
     }
 
-    public Course updateCourse(Long courseId, Course courseDetails) {
+    public CourseView updateCourse(Long courseId, Course courseDetails) {
         Course course = courseRepository.findById(courseId)
             .orElseThrow(() -> new RuntimeException("Course not found"));
 
@@ -48,7 +76,10 @@ public class CourseService {
         course.setEndDate(courseDetails.getEndDate());
         course.setMaxStudents(courseDetails.getMaxStudents());
 
-        return courseRepository.save(course);
+        Course updatedCourse = courseRepository.save(course);
+        courseSeatService.capacityChanged(courseId, updatedCourse.getMaxStudents());
+        TransactionHooks.afterCommit(() -> courseSearchIndex.index(updatedCourse));
+        return CourseView.from(updatedCourse);
     }
 
     public void deleteCourse(Long courseId) {
@@ -59,31 +90,41 @@ public class CourseService {
         course.getEnrollments().forEach(enrollment -> 
             emailService.sendCourseDeletedNotification(enrollment.getStudent(), course));
             
+        statisticsService.onCourseDeleting(courseId);
+        submissionService.onCourseDeleting(courseId);
         courseRepository.delete(course);
+        courseSeatService.onCourseDeleted(courseId);
+        TransactionHooks.afterCommit(() -> courseSearchIndex.remove(courseId));
+        authorizationCache.invalidateAll();
     }
 
-    public Enrollment enrollStudent(Long courseId, User student) {
+    public EnrollmentView enrollStudent(Long courseId, User student) {
         Course course = courseRepository.findById(courseId)
             .orElseThrow(() -> new RuntimeException("Course not found"));
 
-        if (enrollmentRepository.existsByStudentAndCourse(student, course)) {
-            throw new RuntimeException("Student already enrolled in this course");
-        }
-
-        if (enrollmentRepository.countByCourseAndStatus(course, Enrollment.EnrollmentStatus.ACTIVE) 
-            >= course.getMaxStudents()) {
-            throw new RuntimeException("Course is full");
-        }
-
         Enrollment enrollment = new Enrollment();
         enrollment.setStudent(student);
         enrollment.setCourse(course);
         enrollment.setStatus(Enrollment.EnrollmentStatus.ACTIVE);
 
-        Enrollment savedEnrollment = enrollmentRepository.save(enrollment);
+        // The unique (student, course) key rejects duplicates without a separate lookup
+        Enrollment savedEnrollment;
+        try {
+            savedEnrollment = enrollmentRepository.saveAndFlush(enrollment);
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Student already enrolled in this course");
+        }
+
+        // Reserved last so the course's seat row is locked only until commit;
+        // if the course is full the rollback also removes the insert above
+        if (!courseSeatService.reserve(courseId, savedEnrollment.getId())) {
+            throw new RuntimeException("Course is full");
+        }
+        statisticsService.onEnrollmentActivated(courseId);
+        authorizationCache.invalidateUser(student.getId());
         emailService.sendEnrollmentConfirmation(student, course);
         
-        return savedEnrollment;
+        return EnrollmentView.from(savedEnrollment);
     }
 
     public void unenrollStudent(Long courseId, Long studentId) {
@@ -94,18 +135,78 @@ public class CourseService {
                 new User().builder().id(studentId).build(), course)
             .orElseThrow(() -> new RuntimeException("Enrollment not found"));
 
+        boolean wasActive = enrollment.getStatus() == Enrollment.EnrollmentStatus.ACTIVE;
         enrollment.setStatus(Enrollment.EnrollmentStatus.DROPPED);
         enrollmentRepository.save(enrollment);
+        if (wasActive) {
+            courseSeatService.release(courseId);
+            statisticsService.onEnrollmentDeactivated(courseId);
+        }
+        authorizationCache.invalidateUser(studentId);
         
         emailService.sendUnenrollmentNotification(enrollment.getStudent(), course);
     }
 
+    @Transactional(readOnly = true)
     public List<Course> findActiveCourses() {
         return courseRepository.findActiveCourses(LocalDate.now());
     }
 
-    public Page<Course> searchCourses(String searchTerm, Pageable pageable) {
-        return courseRepository.searchCourses(searchTerm, pageable);
+    @Transactional(readOnly = true)
+    public Page<CourseView> searchCourses(String searchTerm, Pageable pageable) {
+        // Explicit sort orders on a browse request still go to the database
+        boolean blank = searchTerm == null || searchTerm.isBlank();
+        if (blank && pageable.getSort().isSorted()) {
+            return courseRepository.findViews(pageable);
+        }
+
+        CourseSearchIndex.SearchResult result = courseSearchIndex.search(
+            searchTerm, (int) pageable.getOffset(), pageable.getPageSize());
+        if (result.ids().isEmpty()) {
+            return new PageImpl<>(Collections.emptyList(), pageable, result.total());
+        }
+
+        // Load the page by primary key, then restore the index's ranking order
+        Map<Long, CourseView> byId = new HashMap<>();
+        courseRepository.findViewsByIdIn(result.ids()).forEach(course -> byId.put(course.getId(), course));
+        List<CourseView> content = new ArrayList<>(result.ids().size());
+        for (Long id : result.ids()) {
+            CourseView course = byId.get(id);
+            if (course != null) {
+                content.add(course);
+            }
+        }
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    /**
+     * Keyset-paginated catalog in title order. Cost per window stays flat however
+     * deep the client scrolls, and no COUNT query is issued.
+     */
+    @Transactional(readOnly = true)
+    public CursorSlice<CourseView> scrollCourses(String cursor, int size) {
+        PageCursor.Position after = PageCursor.decode(cursor);
+        Pageable window = PageCursor.firstWindow(size);
+        Slice<CourseView> slice = after == null
+            ? courseRepository.findCatalogWindow(window)
+            : courseRepository.findCatalogWindowAfter(after.sortKey(), after.id(), window);
+        return PageCursor.slice(slice, course -> PageCursor.encode(course.getTitle(), course.getId()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<EnrollmentView> getCourseEnrollments(Long courseId, Pageable pageable) {
+        // Served from the second-level cache, so this check rarely costs a query
+        courseRepository.findById(courseId)
+            .orElseThrow(() -> new RuntimeException("Course not found"));
+        return enrollmentRepository.findViewsByCourseId(courseId, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorSlice<EnrollmentView> scrollCourseEnrollments(Long courseId, String cursor, int size) {
+        PageCursor.Position after = PageCursor.decode(cursor);
+        Slice<EnrollmentView> slice = enrollmentRepository.findCourseWindowAfter(
+            courseId, after == null ? 0L : after.id(), PageCursor.firstWindow(size));
+        return PageCursor.slice(slice, enrollment -> PageCursor.encode(null, enrollment.getId()));
     }
 
     private void validateCourse(Course course) {
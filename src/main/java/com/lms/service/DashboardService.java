@@ -0,0 +1,239 @@
+package com.lms.service;
+
+import com.lms.config.SqlStatementStats;
+import com.lms.dto.UnavailableSection;
+import com.lms.repository.AssignmentRepository;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.SubmissionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Builds the role dashboards from flat projection queries. Each dashboard costs
+ * a fixed four statements no matter how many courses, students or submissions
+ * are involved, and nothing returned is a managed entity.
+ *
+ * <p>The sections are independent, so they run in parallel on a bounded pool.
+ * Each section gets {@code dashboard.section-timeout} from the moment a worker
+ * picks it up; one that runs over, or is still queued a full timeout after
+ * submission, is reported as unavailable rather than holding up the rest of
+ * the dashboard.
+ *
+ * <p>Every running section holds a pooled connection, so the section workers
+ * are capped at a quarter of the connection pool and dashboards can't starve logins
+ * and writes. Each section runs in a read-only transaction with a timeout, so
+ * a section that is given up on also has its statement cancelled and its
+ * connection returned.
+ */
+@Service
+public class DashboardService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardService.class);
+
+    private final CourseRepository courseRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final AssignmentRepository assignmentRepository;
+    private final SubmissionRepository submissionRepository;
+    private final StatisticsService statisticsService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final TransactionTemplate sectionTransactions;
+    private final long sectionTimeoutMillis;
+    // Meters are looked up per (dashboard, section[, reason]) and registered once
+    private final Map<String, Timer> sectionTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> unavailableCounters = new ConcurrentHashMap<>();
+
+    @Value("${dashboard.section-limit:50}")
+    private int sectionLimit;
+
+    @Value("${dashboard.recent-grades-limit:10}")
+    private int recentGradesLimit;
+
+    @Autowired
+    public DashboardService(CourseRepository courseRepository,
+                            EnrollmentRepository enrollmentRepository,
+                            AssignmentRepository assignmentRepository,
+                            SubmissionRepository submissionRepository,
+                            StatisticsService statisticsService,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${dashboard.section-timeout:800}") long sectionTimeoutMillis,
+                            @Value("${dashboard.executor.threads:4}") int threads,
+                            @Value("${dashboard.executor.queue-capacity:256}") int queueCapacity,
+                            @Value("${spring.datasource.hikari.maximum-pool-size:20}") int connectionPoolSize) {
+        this.courseRepository = courseRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.assignmentRepository = assignmentRepository;
+        this.submissionRepository = submissionRepository;
+        this.statisticsService = statisticsService;
+        this.meterRegistry = meterRegistry;
+        this.sectionTimeoutMillis = sectionTimeoutMillis;
+
+        this.sectionTransactions = new TransactionTemplate(transactionManager);
+        this.sectionTransactions.setReadOnly(true);
+        // Applied as the JDBC query timeout, which only has whole seconds
+        this.sectionTransactions.setTimeout((int) Math.max(1, (sectionTimeoutMillis + 999) / 1000));
+
+        int maxThreads = Math.max(1, connectionPoolSize / 4);
+        if (threads > maxThreads) {
+            logger.warn("dashboard.executor.threads={} is over a quarter of the {}-connection pool; using {}",
+                threads, connectionPoolSize, maxThreads);
+            threads = maxThreads;
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getInstructorDashboard(Long instructorId) {
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        sections.put("activeCourses", () ->
+            courseRepository.findActiveCourseSummariesForInstructor(instructorId, LocalDate.now()));
+        sections.put("totalStudents", () ->
+            enrollmentRepository.countActiveStudentsForInstructor(instructorId));
+        sections.put("upcomingAssignments", () ->
+            assignmentRepository.findUpcomingAssignmentSummariesForInstructor(
+                instructorId, LocalDateTime.now(), PageRequest.of(0, sectionLimit)));
+        sections.put("pendingGrading", () ->
+            submissionRepository.findPendingGradingSummaries(instructorId, PageRequest.of(0, sectionLimit)));
+        return assemble("instructor", sections);
+    }
+
+    public Map<String, Object> getStudentDashboard(Long studentId) {
+        Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+        sections.put("enrolledCourses", () ->
+            courseRepository.findEnrolledCourseSummaries(studentId));
+        sections.put("upcomingAssignments", () ->
+            assignmentRepository.findUpcomingAssignmentSummariesForStudent(
+                studentId, LocalDateTime.now(), PageRequest.of(0, sectionLimit)));
+        sections.put("recentGrades", () ->
+            submissionRepository.findRecentGradeSummaries(studentId, PageRequest.of(0, recentGradesLimit)));
+        sections.put("overallProgress", () ->
+            statisticsService.getStudentAverageScore(studentId));
+        return assemble("student", sections);
+    }
+
+    // Each section runs in its own read-only, time-limited transaction on the worker thread
+    private Map<String, Object> assemble(String dashboard, Map<String, Supplier<Object>> sections) {
+        Map<String, Section> running = new LinkedHashMap<>();
+        Map<String, Object> stats = new HashMap<>();
+
+        for (Map.Entry<String, Supplier<Object>> entry : sections.entrySet()) {
+            Timer timer = sectionTimer(dashboard, entry.getKey());
+            Section section = new Section(System.nanoTime());
+            try {
+                // Counted towards the request's SQL budget although it runs on a pool thread
+                section.future = executor.submit(SqlStatementStats.propagate(() -> {
+                    section.startedAt.set(System.nanoTime());
+                    return timer.record(() -> sectionTransactions.execute(status -> entry.getValue().get()));
+                }));
+                running.put(entry.getKey(), section);
+            } catch (RejectedExecutionException e) {
+                stats.put(entry.getKey(), unavailable(dashboard, entry.getKey(), "overloaded"));
+            }
+        }
+
+        long timeout = TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMillis);
+        for (Map.Entry<String, Section> entry : running.entrySet()) {
+            String name = entry.getKey();
+            Section section = entry.getValue();
+            Future<Object> future = section.future;
+            try {
+                try {
+                    stats.put(name, future.get(remaining(section.submittedAt, timeout), TimeUnit.NANOSECONDS));
+                } catch (TimeoutException e) {
+                    // Started late behind other sections: its own timeout runs from the start
+                    long startedAt = section.startedAt.get();
+                    if (startedAt == 0) {
+                        throw e;
+                    }
+                    stats.put(name, future.get(remaining(startedAt, timeout), TimeUnit.NANOSECONDS));
+                }
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                stats.put(name, unavailable(dashboard, name, "timeout"));
+            } catch (ExecutionException e) {
+                logger.warn("Dashboard section {}/{} failed", dashboard, name, e.getCause());
+                stats.put(name, unavailable(dashboard, name, "error"));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                stats.put(name, unavailable(dashboard, name, "interrupted"));
+            }
+        }
+        return stats;
+    }
+
+    private static long remaining(long since, long timeout) {
+        return Math.max(0, since + timeout - System.nanoTime());
+    }
+
+    private Timer sectionTimer(String dashboard, String section) {
+        return sectionTimers.computeIfAbsent(dashboard + "/" + section, key ->
+            Timer.builder("lms.dashboard.section")
+                .tag("dashboard", dashboard)
+                .tag("section", section)
+                .register(meterRegistry));
+    }
+
+    private UnavailableSection unavailable(String dashboard, String section, String reason) {
+        unavailableCounters.computeIfAbsent(dashboard + "/" + section + "/" + reason, key ->
+            Counter.builder("lms.dashboard.section.unavailable")
+                .tag("dashboard", dashboard)
+                .tag("section", section)
+                .tag("reason", reason)
+                .register(meterRegistry))
+            .increment();
+        return new UnavailableSection(reason);
+    }
+
+    private static final class Section {
+        final long submittedAt;
+        final AtomicLong startedAt = new AtomicLong();
+        Future<Object> future;
+
+        Section(long submittedAt) {
+            this.submittedAt = submittedAt;
+        }
+    }
+}
@@ -1,7 +1,15 @@
 package com.lms.service;
 
+import com.lms.dto.RosterImportResult;
+import com.lms.dto.UserSummary;
 import com.lms.model.*;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Async;
@@ -11,19 +19,48 @@ import org.thymeleaf.context.Context;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import java.time.LocalDate;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     private final JavaMailSender mailSender;
     private final TemplateEngine templateEngine;
+    // Single sender thread for bulk mail so large batches never hold up a request
+    private final ThreadPoolExecutor bulkExecutor;
+    private final Counter droppedMessages;
 
     @Autowired
-    public EmailService(JavaMailSender mailSender, TemplateEngine templateEngine) {
+    public EmailService(JavaMailSender mailSender,
+                        TemplateEngine templateEngine,
+                        MeterRegistry meterRegistry,
+                        @Value("${email.bulk-queue-capacity:100}") int bulkQueueCapacity) {
         this.mailSender = mailSender;
         this.templateEngine = templateEngine;
+        this.bulkExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(bulkQueueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "bulk-mail");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.droppedMessages = Counter.builder("lms.email.bulk.dropped")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        bulkExecutor.shutdown();
     }
 
     @Async
@@ -93,6 +130,63 @@ public class EmailService {
             variables);
     }
 
+    /**
+     * Queues one enrollment confirmation per student. Returns immediately; a
+     * failed message is logged and does not stop the rest of the batch.
+     *
+     * @return how many confirmations were dropped because the queue was full
+     */
+    public int queueEnrollmentConfirmations(List<UserSummary> students, Course course) {
+        if (students.isEmpty()) {
+            return 0;
+        }
+        String courseName = course.getTitle();
+        LocalDate startDate = course.getStartDate();
+        return queueBulk("enrollment confirmations for " + course.getCode(), students.size(), () -> {
+            for (UserSummary student : students) {
+                Map<String, Object> variables = new HashMap<>();
+                variables.put("studentName", student.getFirstName());
+                variables.put("courseName", courseName);
+                variables.put("startDate", startDate);
+                try {
+                    sendTemplateEmail(student.getEmail(),
+                        "Enrollment Confirmation",
+                        "enrollment-confirmation",
+                        variables);
+                } catch (RuntimeException e) {
+                    logger.warn("Enrollment confirmation to user {} failed", student.getId(), e);
+                }
+            }
+        });
+    }
+
+    public void queueRosterImportDigest(User recipient, Course course, RosterImportResult result) {
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("name", recipient.getFirstName());
+        variables.put("courseName", course.getTitle());
+        variables.put("courseCode", course.getCode());
+        variables.put("totalRows", result.getTotalRows());
+        variables.put("enrolled", result.getEnrolled());
+        variables.put("skipped", result.getSkipped());
+        variables.put("notificationsDropped", result.getNotificationsDropped());
+        String to = recipient.getEmail();
+
+        queueBulk("roster import digest for " + course.getCode(), 1, () ->
+            sendTemplateEmail(to, "Roster Import Summary", "roster-import-digest", variables));
+    }
+
+    // Returns the number of messages dropped, which is all of them or none
+    private int queueBulk(String description, int messages, Runnable task) {
+        try {
+            bulkExecutor.execute(task);
+            return 0;
+        } catch (RejectedExecutionException e) {
+            droppedMessages.increment(messages);
+            logger.warn("Bulk mail queue is full, dropping {} ({} messages)", description, messages);
+            return messages;
+        }
+    }
+
     private void sendTemplateEmail(String to, String subject, String templateName, 
                                  Map<String, Object> variables) {
         try {
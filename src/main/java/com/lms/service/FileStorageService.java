@@ -1,68 +1,729 @@
 package com.lms.service;
 
+import com.lms.dto.StorageUsage;
+import com.lms.repository.StoredBlobRepository;
+import com.lms.service.UploadManifest.ObjectInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
+/**
+ * Stores uploaded files under {@code file.upload-dir}.
+ *
+ * <p>Objects are fanned out over two levels of hex directories taken from the
+ * start of their key ({@code blobs/ab/cd/abcd...} for content-addressed blobs,
+ * {@code files/12/34/1234..._name} for {@code <uuid>_<name>} uploads), so no
+ * directory grows past a few thousand entries. {@link UploadManifest} records
+ * each object's size, hash and mtime; lookups consult it instead of the
+ * filesystem. Files from the old flat layout stay readable until the
+ * background re-shard has moved them, after which a marker file turns off the
+ * flat-path fallback. After an unclean shutdown the sharded directories are
+ * walked in the background to add objects whose manifest record was lost;
+ * until that finishes, a manifest miss is checked against the sharded path.
+ *
+ * <p>With {@code file.storage.deduplicate} on, uploads are content-addressed:
+ * each distinct content is kept once under its SHA-256, and stored_blobs
+ * counts the references to it. The name handed back to callers is
+ * {@code <sha256>_<original name>}. Older {@code <uuid>_<original name>}
+ * uploads keep working until {@link StorageMigrationService} moves them into
+ * the blob store.
+ *
+ * <p>Blob files are only created or removed after the transaction that
+ * changed their reference count commits, under a per-digest lock and based on
+ * the committed count, so a delete racing an upload of the same content can
+ * never remove a blob that a committed reference needs. This assumes a single
+ * application node writes to the upload directory. A crash between the commit
+ * and the move leaves the reference committed and the content in tmp/; the
+ * next start moves such temp files into place and deletes the other leftovers.
+ */
 @Service
 public class FileStorageService {
 
+    private static final Logger logger = LoggerFactory.getLogger(FileStorageService.class);
+
+    private static final Pattern BLOB_REFERENCE = Pattern.compile("^([0-9a-f]{64})_");
+    private static final Pattern BLOB_KEY = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern HEX_PREFIX = Pattern.compile("^[0-9a-f]{4}");
+    private static final int LOCK_STRIPES = 64;
+
+    private record StagedUpload(Path temp, long size, byte[] sha256) {
+    }
+
     private final Path fileStorageLocation;
+    private final Path blobLocation;
+    private final Path shardedFileLocation;
+    private final Path tempLocation;
+    private final Path shardedMarker;
+    private final boolean deduplicate;
+    private final boolean reshardOnStartup;
+    private final long reshardGracePeriod;
+    private final StoredBlobRepository storedBlobRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final UploadManifest manifest;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    // Startup maintenance (manifest reconciliation, re-shard) runs here, off the startup thread
+    private final ExecutorService maintenanceExecutor;
+    private final Counter newBlobs;
+    private final Counter duplicateUploads;
+    private final Counter duplicateBytes;
+    private volatile StorageUsage usage = new StorageUsage(0, 0, 0, 0);
+    // True once no object is left in the old flat layout
+    private volatile boolean flatLayoutDrained;
+    // False until every sharded object is known to have a manifest record
+    private volatile boolean manifestComplete;
+    // What the previous run left in tmp/, swept by the startup maintenance
+    private List<Path> leftoverTemps = List.of();
 
-    public FileStorageService(@Value("${file.upload-dir}") String uploadDir) {
+    public FileStorageService(@Value("${file.upload-dir}") String uploadDir,
+                              @Value("${file.storage.deduplicate:true}") boolean deduplicate,
+                              @Value("${file.storage.reshard-on-startup:true}") boolean reshardOnStartup,
+                              @Value("${file.storage.reshard-grace-period:30000}") long reshardGracePeriod,
+                              StoredBlobRepository storedBlobRepository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
         this.fileStorageLocation = Paths.get(uploadDir)
                 .toAbsolutePath().normalize();
+        this.blobLocation = fileStorageLocation.resolve("blobs");
+        this.shardedFileLocation = fileStorageLocation.resolve("files");
+        this.tempLocation = fileStorageLocation.resolve("tmp");
+        Path metaLocation = fileStorageLocation.resolve("meta");
+        this.shardedMarker = metaLocation.resolve("layout-sharded");
+        this.deduplicate = deduplicate;
+        this.reshardOnStartup = reshardOnStartup;
+        this.reshardGracePeriod = reshardGracePeriod;
+        this.storedBlobRepository = storedBlobRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.manifest = new UploadManifest(metaLocation.resolve("manifest.log"));
 
         try {
             Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.blobLocation);
+            Files.createDirectories(this.shardedFileLocation);
+            Files.createDirectories(this.tempLocation);
+            Files.createDirectories(metaLocation);
         } catch (Exception ex) {
             throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
         }
+        this.flatLayoutDrained = Files.exists(shardedMarker);
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        this.maintenanceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upload-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.newBlobs = Counter.builder("lms.storage.uploads")
+            .tag("result", "new")
+            .register(meterRegistry);
+        this.duplicateUploads = Counter.builder("lms.storage.uploads")
+            .tag("result", "duplicate")
+            .register(meterRegistry);
+        this.duplicateBytes = Counter.builder("lms.storage.dedup.uploaded.bytes")
+            .description("Bytes uploaded whose content was already stored")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("lms.storage.blobs", this, s -> s.usage.getBlobs())
+            .register(meterRegistry);
+        Gauge.builder("lms.storage.physical.bytes", this, s -> s.usage.getPhysicalBytes())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("lms.storage.logical.bytes", this, s -> s.usage.getLogicalBytes())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("lms.storage.dedup.saved.bytes", this, s -> s.usage.getSavedBytes())
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("lms.storage.dedup.ratio", this, s -> s.usage.getDedupRatio())
+            .register(meterRegistry);
+        Gauge.builder("lms.storage.manifest.entries", manifest, UploadManifest::size)
+            .register(meterRegistry);
     }
 
+    @PostConstruct
+    void loadState() throws IOException {
+        manifestComplete = manifest.load();
+        // No upload has been staged yet in this run
+        try (Stream<Path> files = Files.list(tempLocation)) {
+            leftoverTemps = files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException, InterruptedException {
+        // Interrupts the re-shard grace period; both tasks resume on the next start
+        maintenanceExecutor.shutdownNow();
+        maintenanceExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        manifest.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startMaintenance() {
+        maintenanceExecutor.execute(() -> {
+            if (!manifestComplete) {
+                reconcileManifest();
+            }
+            sweepLeftoverTemps();
+            reshardFlatLayout();
+        });
+    }
+
+    @Transactional
     public String storeFile(MultipartFile file) throws IOException {
-        String fileName = StringUtils.cleanPath(file.getOriginalFilename());
+        String fileName = checkedFileName(file.getOriginalFilename());
+
+        // Hashed while it is written, so the upload is read exactly once
+        return store(stage(file), fileName);
+    }
+
+    /**
+     * Stores a file that was already assembled on disk (chunked uploads)
+     * without copying it. {@code sha256} is its digest, computed by the caller
+     * while verifying it. The file is hard-linked into storage, so the
+     * caller's copy survives a rollback and is the caller's to delete; where
+     * hard links are not supported it is moved instead, and is gone either way.
+     */
+    @Transactional
+    public String storeFile(Path source, String originalFileName, byte[] sha256) throws IOException {
+        String fileName = checkedFileName(originalFileName);
+
+        Path temp = tempLocation.resolve("upload-" + UUID.randomUUID() + ".tmp");
+        try {
+            Files.createLink(temp, source);
+        } catch (UnsupportedOperationException | IOException ex) {
+            Files.move(source, temp, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return store(new StagedUpload(temp, Files.size(temp), sha256), fileName);
+    }
+
+    private static String checkedFileName(String originalFileName) {
+        String fileName = StringUtils.cleanPath(originalFileName);
 
         // Check if the file's name contains invalid characters
         if (fileName.contains("..")) {
             throw new RuntimeException("Sorry! Filename contains invalid path sequence " + fileName);
         }
+        return fileName;
+    }
+
+    private String store(StagedUpload staged, String fileName) throws IOException {
+        if (deduplicate) {
+            return storeBlob(staged, fileName);
+        }
 
         // Generate a unique file name
         String uniqueFileName = UUID.randomUUID().toString() + "_" + fileName;
+        place(uniqueFileName, staged);
+        return uniqueFileName;
+    }
 
-        // Copy file to the target location
-        Path targetLocation = this.fileStorageLocation.resolve(uniqueFileName);
-        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    private StagedUpload stage(MultipartFile file) throws IOException {
+        Path temp = Files.createTempFile(tempLocation, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256Digest();
+            long size;
+            try (InputStream in = file.getInputStream();
+                 OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = in.transferTo(out);
+            }
+            return new StagedUpload(temp, size, digest.digest());
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(temp);
+            throw ex;
+        }
+    }
 
-        return uniqueFileName;
+    private String storeBlob(StagedUpload staged, String fileName) {
+        String hash = HexFormat.of().formatHex(staged.sha256());
+        boolean created = storedBlobRepository.addReference(hash, staged.size()) == 1;
+        TransactionHooks.afterCommit(() -> {
+            try {
+                place(hash, staged);
+            } catch (IOException ex) {
+                logger.error("Could not store blob {} from {}", hash, staged.temp(), ex);
+            }
+            if (created) {
+                newBlobs.increment();
+            } else {
+                duplicateUploads.increment();
+                duplicateBytes.increment(staged.size());
+            }
+        });
+        TransactionHooks.afterRollback(() -> deleteQuietly(staged.temp()));
+        return hash + "_" + fileName;
     }
 
-    public byte[] getFile(String fileName) throws IOException {
-        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-        
-        if (!Files.exists(filePath)) {
+    public Path getFilePath(String fileName) {
+        Path filePath = resolve(objectKey(fileName));
+
+        if (filePath == null) {
             throw new RuntimeException("File not found " + fileName);
         }
-        
-        return Files.readAllBytes(filePath);
+
+        return filePath;
     }
 
-    public void deleteFile(String fileName) throws IOException {
-        Path filePath = this.fileStorageLocation.resolve(fileName).normalize();
-        
-        if (!Files.exists(filePath)) {
+    // Hex SHA-256 of a stored file, from its name or the manifest when known
+    public String sha256(String fileName) throws IOException {
+        String hash = blobHash(fileName);
+        if (hash != null) {
+            return hash;
+        }
+        ObjectInfo info = manifest.get(fileName);
+        if (info != null) {
+            return HexFormat.of().formatHex(info.sha256());
+        }
+        return HexFormat.of().formatHex(digest(getFilePath(fileName)));
+    }
+
+    @Transactional
+    public void deleteFile(String fileName) {
+        if (!release(fileName)) {
             throw new RuntimeException("File not found " + fileName);
         }
-        
-        Files.delete(filePath);
+    }
+
+    // For deletes cascading to many submissions; a file already gone is skipped, not an error
+    @Transactional
+    public void deleteFiles(Collection<String> fileNames) {
+        for (String fileName : fileNames) {
+            if (!release(fileName)) {
+                logger.warn("Stored file {} was already gone", fileName);
+            }
+        }
+    }
+
+    // Drops one reference to a stored file; the file itself goes only once the transaction commits
+    private boolean release(String fileName) {
+        String hash = blobHash(fileName);
+        if (hash == null) {
+            if (resolve(fileName) == null) {
+                return false;
+            }
+            TransactionHooks.afterCommit(() -> {
+                try {
+                    removeObject(fileName);
+                } catch (IOException ex) {
+                    logger.warn("Could not delete {}", fileName, ex);
+                }
+            });
+            return true;
+        }
+
+        if (storedBlobRepository.releaseReference(hash) == 0) {
+            return false;
+        }
+        if (storedBlobRepository.deleteIfUnreferenced(hash) == 1) {
+            TransactionHooks.afterCommit(() -> deleteBlobIfUnreferenced(hash));
+        }
+        return true;
+    }
+
+    public boolean isDeduplicating() {
+        return deduplicate;
+    }
+
+    /**
+     * Moves an upload stored under its old {@code <uuid>_<name>} file name into
+     * the blob store. {@code repoint} runs in the same transaction as the new
+     * reference count and must switch the owning row to the new name it is
+     * given. The old file is removed once that has committed.
+     *
+     * @return bytes saved because the content was already stored
+     */
+    long migrateLegacyFile(String fileName, Consumer<String> repoint) throws IOException {
+        Path source = getFilePath(fileName);
+        String hash = sha256(fileName);
+        ObjectInfo info = manifest.get(fileName);
+        long size = info != null ? info.size() : Files.size(source);
+        String reference = hash + "_" + fileName.substring(fileName.indexOf('_') + 1);
+
+        // The lock is held across the commit: the blob must not be removed
+        // before the reference that needs it is visible
+        boolean existed;
+        synchronized (lockFor(hash)) {
+            existed = resolve(hash) != null;
+            if (!existed) {
+                Path blob = shardedPath(hash);
+                Files.createDirectories(blob.getParent());
+                linkOrCopy(source, blob);
+                manifest.put(hash, new ObjectInfo(size, System.currentTimeMillis(), HexFormat.of().parseHex(hash)));
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    storedBlobRepository.addReference(hash, size);
+                    repoint.accept(reference);
+                });
+            } catch (RuntimeException ex) {
+                if (!existed) {
+                    removeObject(hash);
+                }
+                throw ex;
+            }
+        }
+        removeObject(fileName);
+        return existed ? size : 0;
+    }
+
+    // Gauges read the last snapshot; the totals take an aggregate over stored_blobs
+    @Scheduled(fixedDelayString = "${file.storage.usage-refresh-interval:60000}")
+    public void refreshUsage() {
+        usage = storedBlobRepository.usage();
+    }
+
+    public StorageUsage getUsage() {
+        return usage;
+    }
+
+    // Re-shard
+
+    /**
+     * Moves objects from the old flat layout into the sharded one while the
+     * application keeps serving. Each object is first hard-linked (or copied)
+     * to its sharded path and recorded in the manifest, from which point
+     * lookups use the new path; the flat names are only removed in a second
+     * pass after a grace period, so a request that resolved the old path just
+     * before the switch can still open it.
+     */
+    void reshardFlatLayout() {
+        if (flatLayoutDrained || !reshardOnStartup) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            int moved = reshardDirectory(fileStorageLocation) + reshardDirectory(blobLocation);
+            if (moved > 0) {
+                logger.info("Re-shard linked {} flat files; removing flat names in {} ms", moved, reshardGracePeriod);
+                Thread.sleep(reshardGracePeriod);
+            }
+            int remaining = dropFlatNames(fileStorageLocation) + dropFlatNames(blobLocation);
+            if (remaining == 0) {
+                Files.createFile(shardedMarker);
+                flatLayoutDrained = true;
+            }
+            logger.info("Re-shard finished in {} ms: {} objects moved, {} left in the flat layout",
+                System.currentTimeMillis() - start, moved, remaining);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            logger.error("Re-shard of {} failed; it resumes on the next start", fileStorageLocation, ex);
+        }
+    }
+
+    private int reshardDirectory(Path directory) throws IOException {
+        int moved = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : files) {
+                String key = file.getFileName().toString();
+                if (directory.equals(blobLocation) && !isBlobKey(key)) {
+                    continue;
+                }
+                if (reshardObject(key, file) && ++moved % 10_000 == 0) {
+                    logger.info("Re-shard progress: {} objects moved", moved);
+                }
+            }
+        }
+        return moved;
+    }
+
+    private boolean reshardObject(String key, Path file) {
+        try {
+            // Blob names are their hash; anything else is hashed outside the lock
+            byte[] sha256 = isBlobKey(key) ? HexFormat.of().parseHex(key) : digest(file);
+            synchronized (lockFor(key)) {
+                if (manifest.get(key) != null || !Files.isRegularFile(file)) {
+                    return false;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                Path target = shardedPath(key);
+                Files.createDirectories(target.getParent());
+                linkOrCopy(file, target);
+                manifest.put(key, new ObjectInfo(attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), sha256));
+                return true;
+            }
+        } catch (IOException ex) {
+            // Deleted while we were looking at it, or unreadable; stays flat for now
+            logger.warn("Could not re-shard {}: {}", file, ex.getMessage());
+            return false;
+        }
+    }
+
+    // Manifest reconciliation
+
+    /**
+     * Adds manifest records for sharded objects that have none: a file moved
+     * into place just before a crash, whose record never reached the disk.
+     */
+    void reconcileManifest() {
+        long start = System.currentTimeMillis();
+        try {
+            int added = reconcileShards(blobLocation) + reconcileShards(shardedFileLocation);
+            manifestComplete = true;
+            logger.info("Upload manifest reconciled in {} ms: {} unrecorded objects added",
+                System.currentTimeMillis() - start, added);
+        } catch (IOException ex) {
+            logger.error("Reconciling the upload manifest failed; sharded paths stay probed until the next start", ex);
+        }
+    }
+
+    private int reconcileShards(Path root) throws IOException {
+        int added = 0;
+        try (Stream<Path> files = Files.walk(root, 3)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String key = file.getFileName().toString();
+                // Skips flat blobs in the root, which the re-shard handles
+                if (file.equals(shardedPath(key)) && manifest.get(key) == null && recordUnlisted(key, file)) {
+                    added++;
+                }
+            }
+        }
+        return added;
+    }
+
+    private boolean recordUnlisted(String key, Path file) {
+        try {
+            byte[] sha256 = isBlobKey(key) ? HexFormat.of().parseHex(key) : digest(file);
+            synchronized (lockFor(key)) {
+                if (manifest.get(key) != null || !Files.isRegularFile(file)) {
+                    return false;
+                }
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                manifest.put(key, new ObjectInfo(attributes.size(),
+                    attributes.lastModifiedTime().toMillis(), sha256));
+                return true;
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not add {} to the upload manifest: {}", file, ex.getMessage());
+            return false;
+        }
+    }
+
+    private int dropFlatNames(Path directory) throws IOException {
+        int remaining = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            for (Path file : files) {
+                String key = file.getFileName().toString();
+                synchronized (lockFor(key)) {
+                    if (manifest.get(key) != null) {
+                        Files.deleteIfExists(file);
+                    } else if (Files.exists(file)) {
+                        remaining++;
+                    }
+                }
+            }
+        }
+        return remaining;
+    }
+
+    // Layout
+
+    static String blobHash(String fileName) {
+        Matcher matcher = BLOB_REFERENCE.matcher(fileName);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    private static String objectKey(String fileName) {
+        String hash = blobHash(fileName);
+        return hash != null ? hash : fileName;
+    }
+
+    private boolean isBlobKey(String key) {
+        return BLOB_KEY.matcher(key).matches();
+    }
+
+    private Path shardedPath(String key) {
+        String prefix = HEX_PREFIX.matcher(key).find()
+            ? key.substring(0, 4)
+            : HexFormat.of().formatHex(sha256Digest().digest(key.getBytes(StandardCharsets.UTF_8)), 0, 2);
+        Path root = isBlobKey(key) ? blobLocation : shardedFileLocation;
+        return root.resolve(prefix.substring(0, 2)).resolve(prefix.substring(2, 4)).resolve(key).normalize();
+    }
+
+    private Path flatPath(String key) {
+        return (isBlobKey(key) ? blobLocation : fileStorageLocation).resolve(key).normalize();
+    }
+
+    // Where an object lives now, or null; only the fallbacks touch the filesystem
+    private Path resolve(String key) {
+        if (manifest.get(key) != null) {
+            return shardedPath(key);
+        }
+        if (!manifestComplete) {
+            Path sharded = shardedPath(key);
+            if (Files.isRegularFile(sharded)) {
+                return sharded;
+            }
+        }
+        if (!flatLayoutDrained) {
+            Path flat = flatPath(key);
+            if (flat.startsWith(fileStorageLocation) && Files.isRegularFile(flat)) {
+                return flat;
+            }
+        }
+        return null;
+    }
+
+    private Object lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+
+    // Moves a staged upload to its sharded path, unless the object is already stored
+    private void place(String key, StagedUpload staged) throws IOException {
+        synchronized (lockFor(key)) {
+            if (resolve(key) != null) {
+                Files.delete(staged.temp());
+                return;
+            }
+            Path target = shardedPath(key);
+            Files.createDirectories(target.getParent());
+            Files.move(staged.temp(), target, StandardCopyOption.ATOMIC_MOVE);
+            manifest.put(key, new ObjectInfo(staged.size(), System.currentTimeMillis(), staged.sha256()));
+        }
+    }
+
+    // Deletes an object from both layouts; false if it was in neither
+    private boolean removeObject(String key) throws IOException {
+        synchronized (lockFor(key)) {
+            boolean removed = false;
+            if (manifest.get(key) != null) {
+                Files.deleteIfExists(shardedPath(key));
+                manifest.remove(key);
+                removed = true;
+            } else if (!manifestComplete) {
+                removed = Files.deleteIfExists(shardedPath(key));
+            }
+            if (!flatLayoutDrained) {
+                Path flat = flatPath(key);
+                removed |= flat.startsWith(fileStorageLocation) && Files.deleteIfExists(flat);
+            }
+            return removed;
+        }
+    }
+
+    private void sweepLeftoverTemps() {
+        int recovered = 0;
+        for (Path temp : leftoverTemps) {
+            try {
+                if (recoverBlob(temp)) {
+                    recovered++;
+                } else {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ex) {
+                logger.warn("Could not clean up {}", temp, ex);
+            }
+        }
+        if (!leftoverTemps.isEmpty()) {
+            logger.info("Swept {} temp files left by the previous run, {} of them missing blobs",
+                leftoverTemps.size(), recovered);
+        }
+        leftoverTemps = List.of();
+    }
+
+    // A blob whose reference committed but which was never moved out of tmp/
+    private boolean recoverBlob(Path temp) throws IOException {
+        byte[] sha256 = digest(temp);
+        String hash = HexFormat.of().formatHex(sha256);
+        synchronized (lockFor(hash)) {
+            if (resolve(hash) != null || !storedBlobRepository.existsById(hash)) {
+                return false;
+            }
+            place(hash, new StagedUpload(temp, Files.size(temp), sha256));
+            return true;
+        }
+    }
+
+    private void deleteBlobIfUnreferenced(String hash) {
+        synchronized (lockFor(hash)) {
+            // Re-read: an upload of the same content may have committed since
+            if (!storedBlobRepository.existsById(hash)) {
+                try {
+                    removeObject(hash);
+                } catch (IOException ex) {
+                    logger.warn("Could not delete blob {}", hash, ex);
+                }
+            }
+        }
+    }
+
+    private void linkOrCopy(Path source, Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException ex) {
+            // No hard links on this file system; copy through a temp file instead
+            Path temp = Files.createTempFile(tempLocation, "migrate-", ".tmp");
+            Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            logger.warn("Could not delete {}", path, ex);
+        }
+    }
+
+    private static byte[] digest(Path file) throws IOException {
+        MessageDigest digest = sha256Digest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
     }
 }
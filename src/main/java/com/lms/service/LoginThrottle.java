@@ -0,0 +1,175 @@
+package com.lms.service;
+
+import com.lms.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token-bucket throttle for login attempts, keyed separately by username and by
+ * client IP. It runs before the BCrypt compare so a credential-stuffing run is
+ * turned away for the price of a map lookup and a CAS.
+ */
+@Component
+public class LoginThrottle {
+
+    private final boolean enabled;
+    private final Limiter byUsername;
+    private final Limiter byIp;
+
+    public LoginThrottle(@Value("${login.throttle.enabled:true}") boolean enabled,
+                         @Value("${login.throttle.username.capacity:5}") int usernameCapacity,
+                         @Value("${login.throttle.username.refill-per-minute:5}") int usernameRefill,
+                         @Value("${login.throttle.ip.capacity:100}") int ipCapacity,
+                         @Value("${login.throttle.ip.refill-per-minute:60}") int ipRefill,
+                         @Value("${login.throttle.max-entries:100000}") int maxEntries) {
+        this.enabled = enabled;
+        this.byUsername = new Limiter(usernameCapacity, usernameRefill, maxEntries);
+        this.byIp = new Limiter(ipCapacity, ipRefill, maxEntries);
+    }
+
+    /**
+     * Consumes one attempt for both the username and the client address, or throws
+     * {@link TooManyRequestsException} carrying how long the caller should wait.
+     * Call {@link #loginSucceeded(String)} when the attempt succeeds.
+     */
+    public void checkLoginAttempt(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        long ipWait = clientIp != null ? byIp.tryAcquire(clientIp, now) : 0;
+        if (ipWait > 0) {
+            throw tooManyAttempts(ipWait);
+        }
+        long userWait = username != null ? byUsername.tryAcquire(username.toLowerCase(Locale.ROOT), now) : 0;
+        if (userWait > 0) {
+            throw tooManyAttempts(userWait);
+        }
+    }
+
+    /**
+     * Gives back the username token taken for an attempt that turned out to be
+     * the owner, so only failed guesses count against an account. The address
+     * keeps paying for every attempt.
+     */
+    public void loginSucceeded(String username) {
+        if (enabled && username != null) {
+            byUsername.refund(username.toLowerCase(Locale.ROOT), System.currentTimeMillis());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${login.throttle.sweep-interval:60000}")
+    public void evictIdleBuckets() {
+        long now = System.currentTimeMillis();
+        byUsername.evictIdle(now);
+        byIp.evictIdle(now);
+    }
+
+    private static TooManyRequestsException tooManyAttempts(long waitMillis) {
+        return new TooManyRequestsException("Too many login attempts, please try again later",
+            Math.max(1, (waitMillis + 999) / 1000));
+    }
+
+    /**
+     * One bucket per key in a ConcurrentHashMap; the buckets themselves are a
+     * single packed AtomicLong so the hot path never takes a lock.
+     */
+    static final class Limiter {
+        // Tokens are tracked in thousandths so slow refill rates don't round down to zero
+        private static final long UNIT = 1000;
+        private static final int TOKEN_BITS = 24;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final long capacity;
+        private final double refillPerMilli;
+        private final long fullRefillMillis;
+        private final int maxEntries;
+        private final long epoch = System.currentTimeMillis();
+
+        Limiter(int capacity, int refillPerMinute, int maxEntries) {
+            this.capacity = Math.min((long) capacity * UNIT, TOKEN_MASK);
+            this.refillPerMilli = refillPerMinute * UNIT / 60_000.0;
+            this.fullRefillMillis = (long) Math.ceil(this.capacity / refillPerMilli);
+            this.maxEntries = maxEntries;
+        }
+
+        /**
+         * Returns 0 when a token was taken, otherwise the milliseconds until one is available.
+         */
+        long tryAcquire(String key, long nowMillis) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxEntries) {
+                    evictIdle(nowMillis);
+                }
+                bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(pack(nowMillis, capacity)));
+            }
+
+            while (true) {
+                long state = bucket.get();
+                long tokens = refilled(state, nowMillis);
+                if (tokens < UNIT) {
+                    return (long) Math.ceil((UNIT - tokens) / refillPerMilli);
+                }
+                if (bucket.compareAndSet(state, pack(nowMillis, tokens - UNIT))) {
+                    return 0;
+                }
+            }
+        }
+
+        void refund(String key, long nowMillis) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                return;
+            }
+            while (true) {
+                long state = bucket.get();
+                long tokens = Math.min(capacity, refilled(state, nowMillis) + UNIT);
+                if (bucket.compareAndSet(state, pack(nowMillis, tokens))) {
+                    return;
+                }
+            }
+        }
+
+        void evictIdle(long nowMillis) {
+            // A bucket that has refilled to capacity carries no state worth keeping
+            buckets.values().removeIf(bucket -> refilled(bucket.get(), nowMillis) >= capacity);
+
+            // Still over budget (e.g. a flood of distinct keys): shed the buckets touched
+            // longest ago. Keys under attack are touched constantly, so they keep their state.
+            int excess = buckets.size() - maxEntries + Math.max(1, maxEntries / 10);
+            if (excess <= 0) {
+                return;
+            }
+            long[] touched = buckets.values().stream()
+                .mapToLong(bucket -> bucket.get() >>> TOKEN_BITS)
+                .sorted()
+                .toArray();
+            if (touched.length == 0) {
+                return;
+            }
+            long cutoff = touched[Math.min(excess, touched.length) - 1];
+            buckets.values().removeIf(bucket -> (bucket.get() >>> TOKEN_BITS) <= cutoff);
+        }
+
+        private long refilled(long state, long nowMillis) {
+            long elapsed = Math.max(0, nowMillis - (epoch + (state >>> TOKEN_BITS)));
+            if (elapsed >= fullRefillMillis) {
+                return capacity;
+            }
+            return Math.min(capacity, (state & TOKEN_MASK) + (long) (elapsed * refillPerMilli));
+        }
+
+        // Upper 40 bits: millis since the limiter was created; lower 24 bits: tokens
+        private long pack(long nowMillis, long tokens) {
+            return ((nowMillis - epoch) << TOKEN_BITS) | tokens;
+        }
+    }
+}
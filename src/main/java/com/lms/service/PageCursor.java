@@ -0,0 +1,60 @@
+package com.lms.service;
+
+import com.lms.dto.CursorSlice;
+import com.lms.exception.InvalidCursorException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque continuation tokens for keyset pagination. A token holds the sort key
+ * and id of the last row a client has seen; the next query seeks past that
+ * position instead of counting and skipping rows with OFFSET.
+ */
+public final class PageCursor {
+
+    public static final int MAX_SIZE = 100;
+
+    private PageCursor() {
+    }
+
+    public static String encode(String sortKey, long id) {
+        String raw = id + ":" + (sortKey == null ? "" : sortKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns null for a blank token, meaning "start from the beginning".
+     */
+    public static Position decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new Position(raw.substring(separator + 1), Long.parseLong(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+
+    // No sort, so Spring Data keeps the query's ORDER BY; a Slice fetches size + 1 rows and skips the count
+    public static Pageable firstWindow(int size) {
+        return PageRequest.of(0, Math.min(Math.max(size, 1), MAX_SIZE));
+    }
+
+    public static <T> CursorSlice<T> slice(Slice<T> slice, Function<T, String> cursorOf) {
+        List<T> content = slice.getContent();
+        String next = slice.hasNext() && !content.isEmpty() ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorSlice<>(content, slice.getSize(), slice.hasNext(), next);
+    }
+
+    public record Position(String sortKey, long id) {
+    }
+}
@@ -0,0 +1,302 @@
+package com.lms.service;
+
+import com.lms.dto.RosterEntry;
+import com.lms.dto.RosterImportResult;
+import com.lms.dto.RosterRowResult;
+import com.lms.dto.RosterRowResult.Status;
+import com.lms.dto.UserSummary;
+import com.lms.model.Course;
+import com.lms.model.Enrollment;
+import com.lms.model.User;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Enrolls a whole roster in one transaction. Students are resolved and checked
+ * for existing enrollments with set-based queries and inserted as JDBC batches,
+ * so a 10k-row import costs a few hundred round trips rather than several per
+ * student. Confirmations are queued once the enrollments have committed, and
+ * any the mail queue had to drop are reported in the result.
+ */
+@Service
+@Transactional
+public class RosterImportService {
+
+    private final CourseRepository courseRepository;
+    private final UserRepository userRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final CourseSeatService courseSeatService;
+    private final StatisticsService statisticsService;
+    private final AuthorizationCache authorizationCache;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${roster.import.max-rows:20000}")
+    private int maxRows;
+
+    @Value("${roster.import.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public RosterImportService(CourseRepository courseRepository,
+                               UserRepository userRepository,
+                               EnrollmentRepository enrollmentRepository,
+                               CourseSeatService courseSeatService,
+                               StatisticsService statisticsService,
+                               AuthorizationCache authorizationCache,
+                               EmailService emailService,
+                               PlatformTransactionManager transactionManager) {
+        this.courseRepository = courseRepository;
+        this.userRepository = userRepository;
+        this.enrollmentRepository = enrollmentRepository;
+        this.courseSeatService = courseSeatService;
+        this.statisticsService = statisticsService;
+        this.authorizationCache = authorizationCache;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    private record Imported(Course course, List<UserSummary> enrolledStudents, List<RosterRowResult> rows) {
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RosterImportResult importRoster(Long courseId, List<RosterEntry> entries, User importedBy) {
+        if (entries.size() > maxRows) {
+            throw new RuntimeException("Roster exceeds the maximum of " + maxRows + " rows");
+        }
+        Imported imported = transactionTemplate.execute(status -> enroll(courseId, entries));
+
+        int enrolled = imported.enrolledStudents().size();
+        int dropped = emailService.queueEnrollmentConfirmations(imported.enrolledStudents(), imported.course());
+        RosterImportResult result = new RosterImportResult(entries.size(), enrolled, entries.size() - enrolled,
+            dropped, imported.rows());
+        emailService.queueRosterImportDigest(importedBy, imported.course(), result);
+        return result;
+    }
+
+    private Imported enroll(Long courseId, List<RosterEntry> entries) {
+        Course course = courseRepository.findById(courseId)
+            .orElseThrow(() -> new RuntimeException("Course not found"));
+
+        RosterRowResult[] results = new RosterRowResult[entries.size()];
+
+        // Normalize identifiers and drop repeats within the file
+        String[] keys = new String[entries.size()];
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> seenKeys = new HashSet<>();
+        for (int i = 0; i < entries.size(); i++) {
+            RosterEntry entry = entries.get(i);
+            String key = keyOf(entry);
+            if (key == null) {
+                results[i] = new RosterRowResult(i + 1, null, Status.INVALID, null);
+            } else if (!seenKeys.add(key)) {
+                results[i] = new RosterRowResult(i + 1, identifierOf(entry), Status.DUPLICATE, null);
+            } else {
+                keys[i] = key;
+                (isEmailKey(key) ? emails : usernames).add(key.substring(2));
+            }
+        }
+
+        // Resolve users, a batch of identifiers per query
+        Map<String, UserSummary> usersByKey = new HashMap<>();
+        inBatches(new ArrayList<>(usernames), batch ->
+            userRepository.findSummariesByUsernameIn(batch).forEach(user ->
+                usersByKey.put(usernameKey(user.getUsername()), user)));
+        inBatches(new ArrayList<>(emails), batch ->
+            userRepository.findSummariesByEmailIn(batch).forEach(user ->
+                usersByKey.put(emailKey(user.getEmail()), user)));
+
+        Map<Long, Integer> rowByStudentId = new LinkedHashMap<>();
+        Map<Long, UserSummary> studentsById = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] == null) {
+                continue;
+            }
+            String identifier = identifierOf(entries.get(i));
+            UserSummary user = usersByKey.get(keys[i]);
+            if (user == null) {
+                results[i] = new RosterRowResult(i + 1, identifier, Status.NOT_FOUND, null);
+            } else if (user.getRole() != User.Role.STUDENT) {
+                results[i] = new RosterRowResult(i + 1, identifier, Status.NOT_A_STUDENT, user.getId());
+            } else if (rowByStudentId.containsKey(user.getId())) {
+                // Same student listed once by username and once by email
+                results[i] = new RosterRowResult(i + 1, identifier, Status.DUPLICATE, user.getId());
+            } else {
+                rowByStudentId.put(user.getId(), i);
+                studentsById.put(user.getId(), user);
+            }
+        }
+
+        // Skip students who already have an enrollment in this course
+        Set<Long> alreadyEnrolled = new HashSet<>();
+        inBatches(new ArrayList<>(rowByStudentId.keySet()), batch ->
+            alreadyEnrolled.addAll(enrollmentRepository.findEnrolledStudentIds(courseId, batch)));
+
+        List<Long> candidates = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : rowByStudentId.entrySet()) {
+            if (alreadyEnrolled.contains(entry.getKey())) {
+                int row = entry.getValue();
+                results[row] = new RosterRowResult(row + 1, identifierOf(entries.get(row)),
+                    Status.ALREADY_ENROLLED, entry.getKey());
+            } else {
+                candidates.add(entry.getKey());
+            }
+        }
+
+        // Seats are granted in roster order; anyone past capacity is reported as full
+        int granted = courseSeatService.reserveUpTo(courseId, candidates.size());
+        List<Long> toEnroll = candidates.subList(0, granted);
+        for (Long studentId : candidates.subList(granted, candidates.size())) {
+            int row = rowByStudentId.get(studentId);
+            results[row] = new RosterRowResult(row + 1, identifierOf(entries.get(row)),
+                Status.COURSE_FULL, studentId);
+        }
+
+        // Ids come from pooled blocks, so these go out as JDBC batches of hibernate.jdbc.batch_size
+        List<Enrollment> enrollments = new ArrayList<>(toEnroll.size());
+        for (Long studentId : toEnroll) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(userRepository.getReferenceById(studentId));
+            enrollment.setCourse(course);
+            enrollment.setStatus(Enrollment.EnrollmentStatus.ACTIVE);
+            enrollments.add(enrollment);
+        }
+        try {
+            enrollmentRepository.saveAll(enrollments);
+            enrollmentRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            // A listed student enrolled themselves while the import was running
+            throw new RuntimeException("Roster changed during import, please retry");
+        }
+        statisticsService.onEnrollmentsActivated(courseId, toEnroll.size());
+        authorizationCache.invalidateUsers(toEnroll);
+
+        List<UserSummary> enrolledStudents = new ArrayList<>(toEnroll.size());
+        for (Long studentId : toEnroll) {
+            int row = rowByStudentId.get(studentId);
+            results[row] = new RosterRowResult(row + 1, identifierOf(entries.get(row)),
+                Status.ENROLLED, studentId);
+            enrolledStudents.add(studentsById.get(studentId));
+        }
+
+        return new Imported(course, enrolledStudents, Arrays.asList(results));
+    }
+
+    /**
+     * Parses a CSV roster. A header row naming {@code username} and/or
+     * {@code email} columns is optional; without one, each line's first field
+     * is treated as an email if it contains '@', otherwise as a username.
+     */
+    public List<RosterEntry> parseCsv(String csv) {
+        List<RosterEntry> entries = new ArrayList<>();
+        if (csv == null) {
+            return entries;
+        }
+        String[] lines = csv.split("\r?\n");
+        int usernameColumn = -1;
+        int emailColumn = -1;
+        int start = 0;
+
+        while (start < lines.length && lines[start].isBlank()) {
+            start++;
+        }
+        if (start < lines.length) {
+            String[] header = splitCsvLine(lines[start]);
+            for (int i = 0; i < header.length; i++) {
+                String column = header[i].toLowerCase(Locale.ROOT);
+                if (column.equals("username")) {
+                    usernameColumn = i;
+                } else if (column.equals("email")) {
+                    emailColumn = i;
+                }
+            }
+            if (usernameColumn >= 0 || emailColumn >= 0) {
+                start++;
+            }
+        }
+
+        for (int i = start; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            String[] fields = splitCsvLine(lines[i]);
+            if (usernameColumn < 0 && emailColumn < 0) {
+                String value = fields[0];
+                entries.add(value.contains("@") ? new RosterEntry(null, value) : new RosterEntry(value, null));
+            } else {
+                entries.add(new RosterEntry(field(fields, usernameColumn), field(fields, emailColumn)));
+            }
+        }
+        return entries;
+    }
+
+    private <T> void inBatches(List<T> items, Consumer<List<T>> action) {
+        for (int from = 0; from < items.size(); from += batchSize) {
+            action.accept(items.subList(from, Math.min(from + batchSize, items.size())));
+        }
+    }
+
+    // Keys are case-insensitive, like the database collation the lookups run against
+    private static String keyOf(RosterEntry entry) {
+        if (entry.getEmail() != null && !entry.getEmail().isBlank()) {
+            return emailKey(entry.getEmail());
+        }
+        if (entry.getUsername() != null && !entry.getUsername().isBlank()) {
+            return usernameKey(entry.getUsername());
+        }
+        return null;
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String usernameKey(String username) {
+        return "u:" + username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isEmailKey(String key) {
+        return key.startsWith("e:");
+    }
+
+    private static String identifierOf(RosterEntry entry) {
+        return entry.getEmail() != null && !entry.getEmail().isBlank() ? entry.getEmail() : entry.getUsername();
+    }
+
+    private static String[] splitCsvLine(String line) {
+        String[] fields = line.split(",", -1);
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.length() >= 2 && field.startsWith("\"") && field.endsWith("\"")) {
+                field = field.substring(1, field.length() - 1).trim();
+            }
+            fields[i] = field;
+        }
+        return fields;
+    }
+
+    private static String field(String[] fields, int column) {
+        return column >= 0 && column < fields.length && !fields[column].isEmpty() ? fields[column] : null;
+    }
+}
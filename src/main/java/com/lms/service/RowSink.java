@@ -0,0 +1,55 @@
+package com.lms.service;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Receives rows one at a time from a streaming read, typically writing each to
+ * the response as it arrives.
+ */
+@FunctionalInterface
+public interface RowSink<T> {
+
+    // Rows per keyset window; small enough that each read is a short query
+    int WINDOW_SIZE = 500;
+
+    void accept(T row) throws IOException;
+
+    /**
+     * Feeds every row of a repository stream to {@code sink} and closes the
+     * stream, releasing its cursor. Must run inside the transaction that opened it.
+     */
+    static <T> void drain(Stream<T> rows, RowSink<T> sink) throws IOException {
+        try (rows) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Feeds rows to {@code sink} one keyset window at a time. {@code nextWindow}
+     * is given the last row of the previous window ({@code null} for the first)
+     * and must read at most {@code windowSize} rows in its own short transaction,
+     * so no connection is held while the sink blocks on a slow client. Call
+     * outside any transaction.
+     */
+    static <T> void drainWindows(Function<T, List<T>> nextWindow, int windowSize,
+                                 RowSink<T> sink) throws IOException {
+        T last = null;
+        List<T> window;
+        do {
+            window = nextWindow.apply(last);
+            for (T row : window) {
+                sink.accept(row);
+            }
+            if (!window.isEmpty()) {
+                last = window.get(window.size() - 1);
+            }
+        } while (window.size() == windowSize);
+    }
+}
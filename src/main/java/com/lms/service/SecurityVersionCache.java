@@ -0,0 +1,69 @@
+package com.lms.service;
+
+import com.lms.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of each user's current security version, so tokens can be
+ * checked against it without a database round trip on every request.
+ */
+@Component
+public class SecurityVersionCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final Map<Long, Entry> versions = new ConcurrentHashMap<>();
+
+    public SecurityVersionCache(UserRepository userRepository,
+                                @Value("${jwt.security-version.cache-ttl:60000}") long ttlMillis) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+    }
+
+    // Reads the primary; a lagging replica could still accept a revoked version
+    @Transactional
+    public boolean isCurrent(Long userId, Integer tokenVersion) {
+        if (tokenVersion == null) {
+            return false;
+        }
+        Integer current = currentVersion(userId);
+        return current != null && current.equals(tokenVersion);
+    }
+
+    /**
+     * Records a new version for the user once the surrounding transaction commits,
+     * so a rolled-back change never invalidates tokens.
+     */
+    public void versionChanged(Long userId, Integer newVersion) {
+        TransactionHooks.afterCommit(() ->
+            versions.put(userId, new Entry(newVersion, System.currentTimeMillis())));
+    }
+
+    public void evict(Long userId) {
+        versions.remove(userId);
+    }
+
+    private Integer currentVersion(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = versions.get(userId);
+        if (entry != null && now - entry.loadedAt < ttlMillis) {
+            return entry.version;
+        }
+
+        Integer version = userRepository.findSecurityVersionById(userId).orElse(null);
+        if (version == null) {
+            versions.remove(userId);
+            return null;
+        }
+        versions.put(userId, new Entry(version, now));
+        return version;
+    }
+
+    private record Entry(Integer version, long loadedAt) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.lms.service;
+
+import com.lms.model.StatisticsKey;
+import com.lms.model.StatisticsSummary;
+import com.lms.model.StatisticsSummary.Scope;
+import com.lms.repository.StatisticsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Keeps running counts, score sums and min/max per course, assignment and
+ * student in the statistics_summary table. Event methods join the caller's
+ * transaction, so counters commit or roll back with the change that moved them.
+ * Reads are single primary-key lookups.
+ */
+@Service
+@Transactional
+public class StatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsService.class);
+
+    private final StatisticsRepository statisticsRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Autowired
+    public StatisticsService(StatisticsRepository statisticsRepository,
+                             PlatformTransactionManager transactionManager) {
+        this.statisticsRepository = statisticsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Events
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onEnrollmentActivated(Long courseId) {
+        statisticsRepository.adjustItemCount(Scope.COURSE.name(), courseId, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onEnrollmentsActivated(Long courseId, int count) {
+        if (count > 0) {
+            statisticsRepository.adjustItemCount(Scope.COURSE.name(), courseId, count);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onEnrollmentDeactivated(Long courseId) {
+        statisticsRepository.adjustItemCount(Scope.COURSE.name(), courseId, -1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onSubmission(Long assignmentId, Long studentId) {
+        statisticsRepository.adjustItemCount(Scope.ASSIGNMENT.name(), assignmentId, 1);
+        statisticsRepository.adjustItemCount(Scope.STUDENT.name(), studentId, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onGraded(Long assignmentId, Long studentId, BigDecimal previousScore, BigDecimal newScore) {
+        if (previousScore == null) {
+            statisticsRepository.recordGrade(Scope.ASSIGNMENT.name(), assignmentId, newScore);
+            statisticsRepository.recordGrade(Scope.STUDENT.name(), studentId, newScore);
+        } else {
+            // A regrade can move min/max in either direction, so recompute just these two rows
+            statisticsRepository.recomputeAssignment(assignmentId);
+            statisticsRepository.recomputeStudent(studentId);
+        }
+    }
+
+    /**
+     * Drops the course row and the rows of its assignments, and recomputes every
+     * student who had submitted to it. Reads the submissions that are about to be
+     * cascaded away, so call it before the course delete is flushed.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onCourseDeleting(Long courseId) {
+        statisticsRepository.recomputeStudentsWithoutCourse(courseId);
+        statisticsRepository.deleteAssignmentsOfCourse(courseId);
+        statisticsRepository.deleteByScope(Scope.COURSE, courseId);
+    }
+
+    // Same ordering rule as onCourseDeleting
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onAssignmentDeleting(Long assignmentId) {
+        statisticsRepository.recomputeStudentsWithoutAssignment(assignmentId);
+        statisticsRepository.deleteByScope(Scope.ASSIGNMENT, assignmentId);
+    }
+
+    // Reads
+
+    @Transactional(readOnly = true)
+    public long getActiveEnrollmentCount(Long courseId) {
+        return find(Scope.COURSE, courseId).map(StatisticsSummary::getItemCount).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public long getSubmissionCount(Long assignmentId) {
+        return find(Scope.ASSIGNMENT, assignmentId).map(StatisticsSummary::getItemCount).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Double getAssignmentAverageScore(Long assignmentId) {
+        return find(Scope.ASSIGNMENT, assignmentId).map(StatisticsSummary::getAverageScore).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public Double getStudentAverageScore(Long studentId) {
+        return find(Scope.STUDENT, studentId).map(StatisticsSummary::getAverageScore).orElse(null);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<StatisticsSummary> find(Scope scope, Long scopeId) {
+        return statisticsRepository.findById(new StatisticsKey(scope, scopeId));
+    }
+
+    // Reconciliation
+
+    /**
+     * Rebuilds every counter from the source tables and removes rows whose
+     * course, assignment or student no longer exists. Repairs any drift from
+     * writes that bypassed the services.
+     * <p>
+     * Each scope commits on its own. INSERT ... SELECT share-locks the rows it
+     * reads until commit, so one transaction for all four statements would
+     * hold enrollment and submission locks for the whole run.
+     */
+    @Scheduled(cron = "${statistics.reconcile-cron:0 30 3 * * *}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        int courses = inOwnTransaction(statisticsRepository::reconcileCourses);
+        int assignments = inOwnTransaction(statisticsRepository::reconcileAssignments);
+        int students = inOwnTransaction(statisticsRepository::reconcileStudents);
+        int orphans = inOwnTransaction(statisticsRepository::deleteOrphans);
+        logger.info("Statistics reconciled in {} ms (courses={}, assignments={}, students={}, orphans removed={})",
+            System.currentTimeMillis() - start, courses, assignments, students, orphans);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void seedIfEmpty() {
+        if (statisticsRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    private int inOwnTransaction(IntSupplier statement) {
+        Integer rows = transactionTemplate.execute(status -> statement.getAsInt());
+        return rows != null ? rows : 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.lms.service;
+
+import com.lms.dto.StorageUsage;
+import com.lms.model.Submission;
+import com.lms.repository.SubmissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Converts uploads stored under {@code <uuid>_<name>} into the content-addressed
+ * blob store, one submission at a time, merging identical files as it goes.
+ * Run once with {@code --file.storage.migrate-on-startup=true}; it is safe to
+ * interrupt and re-run, since converted submissions are skipped.
+ */
+@Service
+public class StorageMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageMigrationService.class);
+
+    private final SubmissionRepository submissionRepository;
+    private final FileStorageService fileStorageService;
+    private final boolean migrateOnStartup;
+    private final int batchSize;
+
+    @Autowired
+    public StorageMigrationService(SubmissionRepository submissionRepository,
+                                   FileStorageService fileStorageService,
+                                   @Value("${file.storage.migrate-on-startup:false}") boolean migrateOnStartup,
+                                   @Value("${file.storage.migrate-batch-size:500}") int batchSize) {
+        this.submissionRepository = submissionRepository;
+        this.fileStorageService = fileStorageService;
+        this.migrateOnStartup = migrateOnStartup;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateIfRequested() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        if (!fileStorageService.isDeduplicating()) {
+            logger.warn("Storage migration skipped: file.storage.deduplicate is off");
+            return;
+        }
+        migrate();
+    }
+
+    public void migrate() {
+        long start = System.currentTimeMillis();
+        int migrated = 0;
+        int failed = 0;
+        long savedBytes = 0;
+
+        long lastId = 0;
+        List<Submission> batch;
+        do {
+            batch = submissionRepository.findWithFileAfter(lastId, PageRequest.of(0, batchSize));
+            for (Submission submission : batch) {
+                lastId = submission.getId();
+                String fileUrl = submission.getFileUrl();
+                if (FileStorageService.blobHash(fileUrl) != null) {
+                    continue;
+                }
+                try {
+                    savedBytes += fileStorageService.migrateLegacyFile(fileUrl, reference -> {
+                        int updated = submissionRepository.replaceFile(submission.getId(), fileUrl, reference,
+                            FileStorageService.blobHash(reference));
+                        if (updated != 1) {
+                            throw new RuntimeException("Submission " + submission.getId() + " changed during migration");
+                        }
+                    });
+                    migrated++;
+                } catch (IOException | RuntimeException ex) {
+                    failed++;
+                    logger.warn("Could not migrate file of submission {}: {}", submission.getId(), ex.getMessage());
+                }
+            }
+        } while (batch.size() == batchSize);
+
+        fileStorageService.refreshUsage();
+        StorageUsage usage = fileStorageService.getUsage();
+        logger.info("Storage migration finished in {} ms: {} files migrated, {} failed, "
+                + "{} bytes saved by this run; store now holds {} blobs for {} references, {} bytes saved in total",
+            System.currentTimeMillis() - start, migrated, failed, savedBytes,
+            usage.getBlobs(), usage.getReferences(), usage.getSavedBytes());
+    }
+}
@@ -1,17 +1,23 @@
 package com.lms.service;
 
+import com.lms.dto.SubmissionFile;
+import com.lms.dto.SubmissionView;
 import com.lms.model.Assignment;
 import com.lms.model.Submission;
 import com.lms.model.User;
 import com.lms.repository.AssignmentRepository;
 import com.lms.repository.SubmissionRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -23,50 +29,78 @@ public class SubmissionService {
     private final AssignmentRepository assignmentRepository;
     private final FileStorageService fileStorageService;
     private final EmailService emailService;
+    private final StatisticsService statisticsService;
 
     @Autowired
     public SubmissionService(SubmissionRepository submissionRepository,
                            AssignmentRepository assignmentRepository,
                            FileStorageService fileStorageService,
-                           EmailService emailService) {
+                           EmailService emailService,
+                           StatisticsService statisticsService) {
         this.submissionRepository = submissionRepository;
         this.assignmentRepository = assignmentRepository;
         this.fileStorageService = fileStorageService;
         this.emailService = emailService;
+        this.statisticsService = statisticsService;
     }
 
-    public Submission submitAssignment(Long assignmentId, User student, MultipartFile file) 
+    public SubmissionView submitAssignment(Long assignmentId, User student, MultipartFile file) 
+            throws IOException {
+        return submitAssignment(assignmentId, student, () -> fileStorageService.storeFile(file));
+    }
+
+    // Chunked uploads: the assembled file is linked into storage, not copied
+    public SubmissionView submitAssignment(Long assignmentId, User student, Path file, String fileName,
+                                           byte[] sha256) throws IOException {
+        return submitAssignment(assignmentId, student, () -> fileStorageService.storeFile(file, fileName, sha256));
+    }
+
+    private SubmissionView submitAssignment(Long assignmentId, User student, FileStore fileStore)
             throws IOException {
         Assignment assignment = assignmentRepository.findById(assignmentId)
             .orElseThrow(() -> new RuntimeException("Assignment not found"));
 
-        if (LocalDateTime.now().isAfter(assignment.getDueDate())) {
-            throw new RuntimeException("Assignment submission deadline has passed");
-        }
-
-        // Check if student already submitted
-        if (submissionRepository.existsByAssignmentAndStudent(assignment, student)) {
-            throw new RuntimeException("You have already submitted this assignment");
-        }
+        checkSubmittable(assignment, student);
 
         // Store the file
-        String fileUrl = fileStorageService.storeFile(file);
+        String fileUrl = fileStore.store();
 
         Submission submission = new Submission();
         submission.setAssignment(assignment);
         submission.setStudent(student);
         submission.setFileUrl(fileUrl);
+        submission.setContentHash(fileStorageService.sha256(fileUrl));
         submission.setSubmissionDate(LocalDateTime.now());
 
         Submission savedSubmission = submissionRepository.save(submission);
+        statisticsService.onSubmission(assignmentId, student.getId());
         
         // Notify instructor
         emailService.sendNewSubmissionNotification(assignment.getCourse().getInstructor(), savedSubmission);
         
-        return savedSubmission;
+        return SubmissionView.from(savedSubmission);
     }
 
-    public Submission gradeSubmission(Long submissionId, BigDecimal score, String feedback) {
+    // Lets a chunked upload fail before any data is sent rather than at finalization
+    @Transactional(readOnly = true)
+    public void checkSubmittable(Long assignmentId, User student) {
+        Assignment assignment = assignmentRepository.findById(assignmentId)
+            .orElseThrow(() -> new RuntimeException("Assignment not found"));
+        checkSubmittable(assignment, student);
+    }
+
+    private void checkSubmittable(Assignment assignment, User student) {
+        if (LocalDateTime.now().isAfter(assignment.getDueDate())) {
+            throw new RuntimeException("Assignment submission deadline has passed");
+        }
+
+        // Check if student already submitted
+        if (submissionRepository.existsByAssignmentAndStudent(assignment, student)) {
+            throw new RuntimeException("You have already submitted this assignment");
+        }
+    }
+
+    public SubmissionView gradeSubmission(Long submissionId, BigDecimal score, String feedback) {
         Submission submission = submissionRepository.findById(submissionId)
             .orElseThrow(() -> new RuntimeException("Submission not found"));
 
@@ -74,33 +108,66 @@ public class SubmissionService {
             throw new RuntimeException("Score cannot exceed total points");
         }
 
+        BigDecimal previousScore = submission.getScore();
         submission.setScore(score);
         submission.setFeedback(feedback);
         
         Submission gradedSubmission = submissionRepository.save(submission);
+        statisticsService.onGraded(submission.getAssignment().getId(), submission.getStudent().getId(),
+            previousScore, score);
         
         // Notify student
         emailService.sendGradingNotification(submission.getStudent(), gradedSubmission);
         
-        return gradedSubmission;
+        return SubmissionView.from(gradedSubmission);
     }
 
-    public List<Submission> getPendingGradingByInstructor(User instructor) {
-        return submissionRepository.findPendingGradingByInstructor(instructor);
+    @Transactional(readOnly = true)
+    public List<SubmissionView> getPendingGradingByInstructor(User instructor) {
+        return submissionRepository.findPendingGradingViews(instructor.getId());
     }
 
-    public List<Submission> getStudentSubmissions(User student) {
-        return submissionRepository.findByStudent(student);
+    // Newest first, read in keyset windows so no connection is held while writing
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamStudentSubmissions(Long studentId, RowSink<SubmissionView> sink) throws IOException {
+        Pageable window = PageRequest.of(0, RowSink.WINDOW_SIZE);
+        RowSink.drainWindows(last -> last == null
+                ? submissionRepository.findViewsByStudentIdBefore(studentId, null, null, window)
+                : submissionRepository.findViewsByStudentIdBefore(studentId, last.getSubmissionDate(), last.getId(), window),
+            RowSink.WINDOW_SIZE, sink);
     }
 
+    @Transactional(readOnly = true)
     public Double calculateStudentAverageScore(User student) {
-        return submissionRepository.calculateStudentAverageScore(student);
+        return statisticsService.getStudentAverageScore(student.getId());
     }
 
-    public byte[] downloadSubmission(Long submissionId) throws IOException {
+    // Read-write: submissions stored before content hashes existed get theirs on first download
+    public SubmissionFile getSubmissionFile(Long submissionId) throws IOException {
         Submission submission = submissionRepository.findById(submissionId)
             .orElseThrow(() -> new RuntimeException("Submission not found"));
-            
-        return fileStorageService.getFile(submission.getFileUrl());
+
+        String fileUrl = submission.getFileUrl();
+        if (submission.getContentHash() == null) {
+            submission.setContentHash(fileStorageService.sha256(fileUrl));
+        }
+        // Stored names are "<uuid>_<original name>"
+        String downloadName = fileUrl.substring(fileUrl.indexOf('_') + 1);
+        return new SubmissionFile(fileStorageService.getFilePath(fileUrl), downloadName,
+            submission.getContentHash());
+    }
+
+    // Called before the delete cascades to the submissions, while their file names can still be read
+    public void onAssignmentDeleting(Long assignmentId) {
+        fileStorageService.deleteFiles(submissionRepository.findFileUrlsByAssignmentId(assignmentId));
+    }
+
+    public void onCourseDeleting(Long courseId) {
+        fileStorageService.deleteFiles(submissionRepository.findFileUrlsByCourseId(courseId));
+    }
+
+    @FunctionalInterface
+    private interface FileStore {
+        String store() throws IOException;
     }
 }
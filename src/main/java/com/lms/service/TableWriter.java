@@ -0,0 +1,19 @@
+package com.lms.service;
+
+import java.io.IOException;
+
+/**
+ * Writes a table row by row to an output stream that belongs to the caller.
+ * Cells may be null (empty), a {@link Number} or anything else, which is
+ * written as text.
+ */
+interface TableWriter {
+
+    void writeRow(Object... cells) throws IOException;
+
+    // Pushes what has been written so far to the client
+    void flush() throws IOException;
+
+    // Completes the document without closing the underlying stream
+    void finish() throws IOException;
+}
@@ -0,0 +1,252 @@
+package com.lms.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory store of revoked token ids (jti). A Bloom filter sits in front of the
+ * map so the common "not revoked" check is a handful of bit reads with no map probe.
+ * Entries expire together with the token they revoke, and every revocation is
+ * appended to a small binary log so the store survives restarts.
+ */
+@Component
+public class TokenRevocationStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStore.class);
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final Path logFile;
+    private final int initialCapacity;
+
+    private volatile BloomFilter filter;
+    private DataOutputStream log;
+
+    public TokenRevocationStore(@Value("${jwt.revocation.file:./data/revoked-tokens.bin}") String logFile,
+                                @Value("${jwt.revocation.expected-entries:100000}") int initialCapacity) {
+        this.logFile = Paths.get(logFile).toAbsolutePath().normalize();
+        this.initialCapacity = initialCapacity;
+        this.filter = new BloomFilter(initialCapacity);
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        Files.createDirectories(logFile.getParent());
+        long now = System.currentTimeMillis();
+
+        if (Files.exists(logFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+                while (true) {
+                    long expiresAt = in.readLong();
+                    String tokenId = readId(in);
+                    if (expiresAt > now) {
+                        revoked.put(tokenId, expiresAt);
+                    }
+                }
+            } catch (EOFException e) {
+                // End of log, or a torn final record from a crash; both are safe to stop at
+            }
+        }
+
+        synchronized (writeLock) {
+            rebuildFilter();
+            compactLog();
+        }
+        logger.info("Loaded {} revoked tokens from {}", revoked.size(), logFile);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        synchronized (writeLock) {
+            if (log != null) {
+                log.close();
+                log = null;
+            }
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!filter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (revoked.putIfAbsent(tokenId, expiresAtMillis) != null) {
+                return;
+            }
+            if (revoked.size() > filter.capacity) {
+                rebuildFilter();
+            } else {
+                filter.add(tokenId);
+            }
+            append(tokenId, expiresAtMillis);
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    // Expired ids are dropped from the map, the filter is rebuilt so it stops
+    // reporting them, and the log is rewritten with only live entries.
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        if (!revoked.values().removeIf(expiresAt -> expiresAt <= now)) {
+            return;
+        }
+        synchronized (writeLock) {
+            rebuildFilter();
+            try {
+                compactLog();
+            } catch (IOException e) {
+                logger.error("Failed to compact token revocation log {}", logFile, e);
+            }
+        }
+    }
+
+    private void rebuildFilter() {
+        BloomFilter rebuilt = new BloomFilter(Math.max(initialCapacity, revoked.size() * 2));
+        revoked.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+    }
+
+    private void append(String tokenId, long expiresAtMillis) {
+        try {
+            if (log == null) {
+                log = openLog();
+            }
+            writeRecord(log, tokenId, expiresAtMillis);
+            log.flush();
+        } catch (IOException e) {
+            // The revocation is still enforced in memory; it just won't survive a restart
+            logger.error("Failed to persist revoked token to {}", logFile, e);
+        }
+    }
+
+    private void compactLog() throws IOException {
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+        Path tmp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            for (Map.Entry<String, Long> entry : revoked.entrySet()) {
+                writeRecord(out, entry.getKey(), entry.getValue());
+            }
+        }
+        Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log = openLog();
+    }
+
+    private DataOutputStream openLog() throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(logFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+    }
+
+    // Record layout: expiresAt (8 bytes), id length (1 byte), id bytes (ASCII)
+    private static void writeRecord(DataOutputStream out, String tokenId, long expiresAtMillis) throws IOException {
+        byte[] id = tokenId.getBytes(StandardCharsets.US_ASCII);
+        out.writeLong(expiresAtMillis);
+        out.writeByte(id.length);
+        out.write(id);
+    }
+
+    private static String readId(DataInputStream in) throws IOException {
+        int length = in.readUnsignedByte();
+        byte[] id = new byte[length];
+        in.readFully(id);
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Fixed-size Bloom filter sized for ~1% false positives at its capacity.
+     * Adds are lock-free CAS updates; reads never block.
+     */
+    static final class BloomFilter {
+        private static final int HASHES = 7;
+
+        final int capacity;
+        private final AtomicLongArray bits;
+        private final long bitCount;
+
+        BloomFilter(int capacity) {
+            this.capacity = Math.max(capacity, 1024);
+            // ~9.6 bits per entry gives a 1% false-positive rate with 7 hashes
+            int words = (int) Math.min(Integer.MAX_VALUE, ((long) this.capacity * 10 + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+        }
+
+        void add(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = hash(key);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String key) {
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x100000001B3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 33)) * 0xFF51AFD7ED558CCDL;
+            z = (z ^ (z >>> 33)) * 0xC4CEB9FE1A85EC53L;
+            return z ^ (z >>> 33);
+        }
+    }
+}
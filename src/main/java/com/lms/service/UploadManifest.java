@@ -0,0 +1,209 @@
+package com.lms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size, SHA-256 and modification time of every object in the sharded upload
+ * layout, so existence and metadata checks are map lookups rather than
+ * filesystem stats. Changes are appended to a binary log, forced to disk record
+ * by record, that is replayed on startup and rewritten once superseded records
+ * outnumber live ones. A marker left by {@link #close()} tells the next start
+ * whether the log can be trusted to be complete.
+ */
+final class UploadManifest {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadManifest.class);
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MIN_COMPACTION_GARBAGE = 10_000;
+
+    record ObjectInfo(long size, long modifiedAt, byte[] sha256) {
+    }
+
+    private final Map<String, ObjectInfo> objects = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+    private final Path logFile;
+    private final Path cleanMarker;
+
+    private DataOutputStream log;
+    private FileChannel logChannel;
+    private long garbage;
+    // Set after a failed write: the tail of the log may be torn, so the next write rewrites it
+    private boolean rewriteNeeded;
+
+    UploadManifest(Path logFile) {
+        this.logFile = logFile;
+        this.cleanMarker = logFile.resolveSibling(logFile.getFileName() + ".clean");
+    }
+
+    /**
+     * Replays the log. Returns false when the previous process did not close the
+     * manifest, in which case an object moved into place just before a crash may
+     * have no record.
+     */
+    boolean load() throws IOException {
+        Files.createDirectories(logFile.getParent());
+        if (Files.exists(logFile)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+                while (true) {
+                    byte op = in.readByte();
+                    String key = readKey(in);
+                    if (op == PUT) {
+                        long size = in.readLong();
+                        long modifiedAt = in.readLong();
+                        byte[] sha256 = new byte[32];
+                        in.readFully(sha256);
+                        objects.put(key, new ObjectInfo(size, modifiedAt, sha256));
+                    } else {
+                        objects.remove(key);
+                    }
+                }
+            } catch (EOFException e) {
+                // End of log, or a torn final record from a crash; both are safe to stop at
+            }
+        }
+        boolean clean = Files.deleteIfExists(cleanMarker);
+        synchronized (writeLock) {
+            compact();
+        }
+        logger.info("Loaded {} upload manifest entries from {}{}", objects.size(), logFile,
+            clean ? "" : " after an unclean shutdown");
+        return clean;
+    }
+
+    void close() throws IOException {
+        synchronized (writeLock) {
+            if (rewriteNeeded) {
+                compact();
+            }
+            closeLog();
+            Files.write(cleanMarker, new byte[0]);
+        }
+    }
+
+    ObjectInfo get(String key) {
+        return objects.get(key);
+    }
+
+    int size() {
+        return objects.size();
+    }
+
+    // Both writers return once the record is on disk; on failure the map keeps the change
+    void put(String key, ObjectInfo info) throws IOException {
+        synchronized (writeLock) {
+            if (objects.put(key, info) != null) {
+                garbage++;
+            }
+            append(key, info);
+        }
+    }
+
+    void remove(String key) throws IOException {
+        synchronized (writeLock) {
+            if (objects.remove(key) == null) {
+                return;
+            }
+            // The removed put record and the remove record itself
+            garbage += 2;
+            append(key, null);
+        }
+    }
+
+    private void append(String key, ObjectInfo info) throws IOException {
+        if (rewriteNeeded || (garbage > MIN_COMPACTION_GARBAGE && garbage > objects.size())) {
+            compact();
+            return;
+        }
+        try {
+            if (log == null) {
+                openLog();
+            }
+            writeRecord(log, key, info);
+            log.flush();
+            logChannel.force(false);
+        } catch (IOException e) {
+            rewriteNeeded = true;
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    private void compact() throws IOException {
+        rewriteNeeded = true;
+        closeLog();
+        Path tmp = logFile.resolveSibling(logFile.getFileName() + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            for (Map.Entry<String, ObjectInfo> entry : objects.entrySet()) {
+                writeRecord(out, entry.getKey(), entry.getValue());
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(tmp, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        garbage = 0;
+        openLog();
+        rewriteNeeded = false;
+    }
+
+    private void openLog() throws IOException {
+        FileOutputStream file = new FileOutputStream(logFile.toFile(), true);
+        logChannel = file.getChannel();
+        log = new DataOutputStream(new BufferedOutputStream(file));
+    }
+
+    private void closeLog() throws IOException {
+        if (log != null) {
+            DataOutputStream closing = log;
+            log = null;
+            logChannel = null;
+            closing.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            closeLog();
+        } catch (IOException e) {
+            logger.debug("Failed to close upload manifest log {}", logFile, e);
+        }
+    }
+
+    // Record layout: op (1 byte), key length (2 bytes), key (UTF-8), then for a
+    // put: size (8 bytes), modification time (8 bytes), SHA-256 (32 bytes)
+    private static void writeRecord(DataOutputStream out, String key, ObjectInfo info) throws IOException {
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        out.writeByte(info != null ? PUT : REMOVE);
+        out.writeShort(keyBytes.length);
+        out.write(keyBytes);
+        if (info != null) {
+            out.writeLong(info.size());
+            out.writeLong(info.modifiedAt());
+            out.write(info.sha256());
+        }
+    }
+
+    private static String readKey(DataInputStream in) throws IOException {
+        byte[] key = new byte[in.readUnsignedShort()];
+        in.readFully(key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,277 @@
+package com.lms.service;
+
+import com.lms.dto.UserSummary;
+import com.lms.model.User;
+import com.lms.model.User.Role;
+import com.lms.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index over usernames, emails and names, partitioned by role.
+ * Every query token has to be a prefix of some token of the user, so "jo sm"
+ * finds "John Smith" and "smith@" finds the same account by email.
+ *
+ * <p>Each partition is a sorted set of (token, userId) keys, so a prefix is a
+ * range scan and typeahead can stop as soon as it has enough matches. The index
+ * is rebuilt on startup and kept current by {@link UserService} after each
+ * committed change.
+ */
+@Component
+public class UserDirectoryIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserDirectoryIndex.class);
+
+    private final UserRepository userRepository;
+    private final int rebuildBatchSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private Contents contents = new Contents();
+    // Changes that arrive while a rebuild is reading the database, replayed onto
+    // its result before the swap; a null entry is a removal
+    private Map<Long, Entry> changesDuringRebuild;
+
+    public UserDirectoryIndex(UserRepository userRepository,
+                              @Value("${search.users.rebuild-batch-size:1000}") int rebuildBatchSize) {
+        this.userRepository = userRepository;
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Contents rebuilt = new Contents();
+        int users;
+        int keys;
+        try {
+            long afterId = 0;
+            List<UserSummary> batch;
+            do {
+                batch = userRepository.findSummariesAfter(afterId, PageRequest.of(0, rebuildBatchSize));
+                for (UserSummary user : batch) {
+                    rebuilt.put(new Entry(user, tokensOf(user)));
+                    afterId = user.getId();
+                }
+            } while (batch.size() == rebuildBatchSize);
+
+            lock.writeLock().lock();
+            try {
+                // A batch may have been read before one of these commits
+                changesDuringRebuild.forEach(rebuilt::apply);
+                contents = rebuilt;
+                users = rebuilt.entries.size();
+                keys = rebuilt.everyone.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            lock.writeLock().lock();
+            try {
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("User directory built with {} users and {} keys in {} ms",
+            users, keys, System.currentTimeMillis() - start);
+    }
+
+    public void index(User user) {
+        UserSummary summary = UserSummary.from(user);
+        change(user.getId(), new Entry(summary, tokensOf(summary)));
+    }
+
+    public void remove(Long userId) {
+        change(userId, null);
+    }
+
+    private void change(Long userId, Entry entry) {
+        lock.writeLock().lock();
+        try {
+            contents.apply(userId, entry);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.put(userId, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Top matches for typeahead. Stops scanning once {@code limit} users are found,
+     * so the cost depends on the page size rather than on how many users match.
+     * A null role searches every role.
+     */
+    public List<UserSummary> suggest(Role role, String query, int limit) {
+        List<UserSummary> matches = new ArrayList<>(limit);
+        scan(role, query, 0, limit, false, matches);
+        return matches;
+    }
+
+    /**
+     * One page of matching users plus the total number of matches. Results are
+     * ordered by the matched token, so closer completions come first.
+     */
+    public SearchResult search(Role role, String query, int offset, int limit) {
+        List<UserSummary> page = new ArrayList<>(limit);
+        long total = scan(role, query, offset, limit, true, page);
+        return new SearchResult(page, total);
+    }
+
+    // Collects matches [offset, offset + limit) into page and returns how many were
+    // seen; without countAll the scan stops as soon as the page is full
+    private long scan(Role role, String query, int offset, int limit, boolean countAll, List<UserSummary> page) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.tokenize(query)));
+        if (terms.isEmpty() || limit <= 0) {
+            return 0;
+        }
+        // Drive the scan with the longest term, it has the narrowest range
+        String driver = Collections.max(terms, (a, b) -> Integer.compare(a.length(), b.length()));
+        terms.remove(driver);
+
+        lock.readLock().lock();
+        try {
+            NavigableSet<Key> keys = role == null ? contents.everyone : contents.partitions.get(role);
+            Set<Long> seen = new HashSet<>();
+            long matched = 0;
+            for (Key key : keys.subSet(new Key(driver, Long.MIN_VALUE), true,
+                                       new Key(driver + Character.MAX_VALUE, Long.MIN_VALUE), false)) {
+                if (!seen.add(key.userId())) {
+                    continue;
+                }
+                Entry entry = contents.entries.get(key.userId());
+                if (!entry.matchesAll(terms)) {
+                    continue;
+                }
+                if (matched >= offset && page.size() < limit) {
+                    page.add(entry.user());
+                }
+                matched++;
+                if (!countAll && page.size() == limit) {
+                    break;
+                }
+            }
+            return matched;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String[] tokensOf(UserSummary user) {
+        Set<String> tokens = new LinkedHashSet<>();
+        tokens.addAll(TextAnalyzer.tokenize(user.getUsername()));
+        // "john.smith" is also findable as "johnsmith"
+        String compactUsername = TextAnalyzer.normalizeCode(user.getUsername());
+        if (!compactUsername.isEmpty()) {
+            tokens.add(compactUsername);
+        }
+        tokens.addAll(TextAnalyzer.tokenize(user.getEmail()));
+        tokens.addAll(TextAnalyzer.tokenize(user.getFirstName()));
+        tokens.addAll(TextAnalyzer.tokenize(user.getLastName()));
+        return tokens.toArray(new String[0]);
+    }
+
+    // The entries and keys one index generation is made of
+    private static final class Contents {
+        final Map<Long, Entry> entries = new HashMap<>();
+        final Map<Role, NavigableSet<Key>> partitions = new EnumMap<>(Role.class);
+        final NavigableSet<Key> everyone = new TreeSet<>();
+
+        Contents() {
+            for (Role role : Role.values()) {
+                partitions.put(role, new TreeSet<>());
+            }
+        }
+
+        void apply(Long userId, Entry entry) {
+            if (entry == null) {
+                remove(userId);
+            } else {
+                put(entry);
+            }
+        }
+
+        void put(Entry entry) {
+            Long userId = entry.user().getId();
+            remove(userId);
+            entries.put(userId, entry);
+            NavigableSet<Key> partition = partitions.get(entry.user().getRole());
+            for (String token : entry.tokens()) {
+                Key key = new Key(token, userId);
+                partition.add(key);
+                everyone.add(key);
+            }
+        }
+
+        void remove(Long userId) {
+            Entry previous = entries.remove(userId);
+            if (previous == null) {
+                return;
+            }
+            NavigableSet<Key> partition = partitions.get(previous.user().getRole());
+            for (String token : previous.tokens()) {
+                Key key = new Key(token, userId);
+                partition.remove(key);
+                everyone.remove(key);
+            }
+        }
+    }
+
+    private record Entry(UserSummary user, String[] tokens) {
+
+        boolean matchesAll(List<String> terms) {
+            for (String term : terms) {
+                boolean found = false;
+                for (String token : tokens) {
+                    if (token.startsWith(term)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private record Key(String token, long userId) implements Comparable<Key> {
+
+        @Override
+        public int compareTo(Key other) {
+            int byToken = token.compareTo(other.token);
+            return byToken != 0 ? byToken : Long.compare(userId, other.userId);
+        }
+    }
+
+    public record SearchResult(List<UserSummary> users, long total) {
+    }
+}
@@ -1,16 +1,30 @@
 package com.lms.service;
 
+import com.lms.config.AuthenticatedUser;
+import com.lms.config.SecurityUtils;
+import com.lms.dto.UserSummary;
 import com.lms.model.User;
 import com.lms.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -19,20 +33,34 @@ import java.util.Optional;
 @Transactional
 public class UserService implements UserDetailsService {
 
+    private static final String CURRENT_USER_ATTRIBUTE = UserService.class.getName() + ".CURRENT_USER";
+
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
     private final EmailService emailService;
+    private final SecurityVersionCache securityVersionCache;
+    private final AuthorizationCache authorizationCache;
+    private final UserDirectoryIndex userDirectoryIndex;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
     public UserService(UserRepository userRepository, 
-                      BCryptPasswordEncoder passwordEncoder,
+                      PasswordHashingService passwordHashingService,
                       JwtService jwtService,
-                      EmailService emailService) {
+                      EmailService emailService,
+                      SecurityVersionCache securityVersionCache,
+                      AuthorizationCache authorizationCache,
+                      UserDirectoryIndex userDirectoryIndex,
+                      PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
         this.jwtService = jwtService;
         this.emailService = emailService;
+        this.securityVersionCache = securityVersionCache;
+        this.authorizationCache = authorizationCache;
+        this.userDirectoryIndex = userDirectoryIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Override
@@ -47,17 +75,28 @@ public class UserService implements UserDetailsService {
         );
     }
 
+    // BCrypt can wait seconds for a hashing thread; none of the three methods below
+    // may hold a database connection meanwhile, so they run their reads and writes
+    // in short transactions on either side of the hash
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User registerUser(User user) {
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new RuntimeException("Email already registered");
-        }
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new RuntimeException("Username already taken");
-        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (userRepository.existsByEmail(user.getEmail())) {
+                throw new RuntimeException("Email already registered");
+            }
+            if (userRepository.existsByUsername(user.getUsername())) {
+                throw new RuntimeException("Username already taken");
+            }
+        });
 
         // Hash password before saving
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        User savedUser = userRepository.save(user);
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
+        User savedUser = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(user);
+            TransactionHooks.afterCommit(() -> userDirectoryIndex.index(saved));
+            return saved;
+        });
         
         // Send welcome email
         emailService.sendWelcomeEmail(savedUser);
@@ -65,14 +104,25 @@ public class UserService implements UserDetailsService {
         return savedUser;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public String authenticateUser(String username, String password) {
-        User user = userRepository.findByUsername(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+        User user = transactionTemplate.execute(status -> userRepository.findByUsername(username)
+            .orElseThrow(() -> new UsernameNotFoundException("User not found")));
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashingService.matches(password, user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
 
+        // Upgrade the stored hash when the configured BCrypt cost has changed
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            String previousHash = user.getPassword();
+            String rehashed = passwordHashingService.encode(password);
+            transactionTemplate.executeWithoutResult(status -> userRepository.findById(user.getId())
+                // Skip the upgrade if the password changed while we were hashing
+                .filter(current -> previousHash.equals(current.getPassword()))
+                .ifPresent(current -> current.setPassword(rehashed)));
+        }
+
         return jwtService.generateToken(user);
     }
 
@@ -81,13 +131,75 @@ public class UserService implements UserDetailsService {
             .orElseThrow(() -> new RuntimeException("User not found"));
         
         user.setRole(newRole);
-        return userRepository.save(user);
+        bumpSecurityVersion(user);
+        authorizationCache.invalidateUser(userId);
+        User savedUser = userRepository.save(user);
+        TransactionHooks.afterCommit(() -> userDirectoryIndex.index(savedUser));
+        return savedUser;
     }
 
+    public User updateUser(User user) {
+        User savedUser = userRepository.save(user);
+        TransactionHooks.afterCommit(() -> userDirectoryIndex.index(savedUser));
+        return savedUser;
+    }
+
+    public void deleteUser(Long userId) {
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+
+        userRepository.delete(user);
+        authorizationCache.invalidateUser(userId);
+        // Evicted before commit, a concurrent request could reload the row that is still there
+        TransactionHooks.afterCommit(() -> {
+            securityVersionCache.evict(userId);
+            userDirectoryIndex.remove(userId);
+        });
+    }
+
+    @Transactional(readOnly = true)
     public List<User> findUsersByRole(User.Role role) {
         return userRepository.findByRole(role);
     }
 
+    @Transactional(readOnly = true)
+    public Page<UserSummary> findAll(Pageable pageable) {
+        return userRepository.findSummaries(null, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<UserSummary> findUsersByRole(User.Role role, Pageable pageable) {
+        return userRepository.findSummaries(role, pageable);
+    }
+
+    // Every user (or every user with the role) in id order, read in keyset windows
+    // so no connection is held while the rows are written out
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void streamUsers(User.Role role, RowSink<UserSummary> sink) throws IOException {
+        Pageable window = PageRequest.of(0, RowSink.WINDOW_SIZE);
+        RowSink.drainWindows(
+            last -> userRepository.findSummariesAfter(role, last == null ? 0L : last.getId(), window),
+            RowSink.WINDOW_SIZE, sink);
+    }
+
+    /**
+     * Directory search for admins. Terms are matched as prefixes against the
+     * in-memory index; a blank term lists users straight from the database.
+     */
+    @Transactional(readOnly = true)
+    public Page<UserSummary> searchDirectory(User.Role role, String term, Pageable pageable) {
+        if (term == null || term.isBlank()) {
+            return userRepository.findSummaries(role, pageable);
+        }
+        UserDirectoryIndex.SearchResult result = userDirectoryIndex.search(
+            role, term, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(result.users(), pageable, result.total());
+    }
+
+    public List<UserSummary> suggestUsers(User.Role role, String prefix, int limit) {
+        return userDirectoryIndex.suggest(role, prefix, limit);
+    }
+
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -96,18 +208,69 @@ public class UserService implements UserDetailsService {
         return userRepository.findById(id);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updatePassword(Long userId, String oldPassword, String newPassword) {
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new RuntimeException("User not found"));
+        User user = transactionTemplate.execute(status -> userRepository.findById(userId)
+            .orElseThrow(() -> new RuntimeException("User not found")));
 
-        if (!passwordEncoder.matches(oldPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(oldPassword, user.getPassword())) {
             throw new RuntimeException("Invalid old password");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        String previousHash = user.getPassword();
+        String newHash = passwordHashingService.encode(newPassword);
+        User savedUser = transactionTemplate.execute(status -> {
+            User current = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            // The old password was verified against this hash; refuse if another change won the race
+            if (!previousHash.equals(current.getPassword())) {
+                throw new RuntimeException("Password was changed concurrently, please retry");
+            }
+            current.setPassword(newHash);
+            bumpSecurityVersion(current);
+            return current;
+        });
         
         // Send password change notification
-        emailService.sendPasswordChangeNotification(user);
+        emailService.sendPasswordChangeNotification(savedUser);
+    }
+
+    /**
+     * Returns the authenticated user, loading it at most once per HTTP request.
+     */
+    public User getCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            Object cached = attributes.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (cached instanceof User) {
+                return (User) cached;
+            }
+        }
+
+        User user = loadCurrentUser();
+        if (attributes != null) {
+            attributes.setAttribute(CURRENT_USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    private User loadCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new RuntimeException("No authenticated user");
+        }
+
+        // Claims-based principals carry the id, so use the primary key lookup
+        if (authentication.getPrincipal() instanceof AuthenticatedUser principal) {
+            return userRepository.findById(principal.getId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        }
+        return userRepository.findByUsername(SecurityUtils.getCurrentUsername())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private void bumpSecurityVersion(User user) {
+        user.setSecurityVersion(user.getSecurityVersion() + 1);
+        securityVersionCache.versionChanged(user.getId(), user.getSecurityVersion());
     }
 }
@@ -0,0 +1,41 @@
+package com.lms.service;
+
+import io.jsonwebtoken.Claims;
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked.
+ */
+@Value
+public class VerifiedToken {
+    String tokenId;
+    String subject;
+    Long userId;
+    Integer securityVersion;
+    String role;
+    String email;
+    long issuedAtMillis;
+    long expiresAtMillis;
+
+    static VerifiedToken from(Claims claims) {
+        Date issuedAt = claims.getIssuedAt();
+        Number userId = claims.get(JwtService.USER_ID_CLAIM, Number.class);
+        Number securityVersion = claims.get(JwtService.SECURITY_VERSION_CLAIM, Number.class);
+        return new VerifiedToken(
+            claims.getId(),
+            claims.getSubject(),
+            userId != null ? userId.longValue() : null,
+            securityVersion != null ? securityVersion.intValue() : null,
+            claims.get("role", String.class),
+            claims.get("email", String.class),
+            issuedAt != null ? issuedAt.getTime() : 0L,
+            claims.getExpiration().getTime()
+        );
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
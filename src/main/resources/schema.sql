@@ -7,6 +7,7 @@ CREATE TABLE users (
     first_name VARCHAR(50) NOT NULL,
     last_name VARCHAR(50) NOT NULL,
     role ENUM('ADMIN', 'INSTRUCTOR', 'STUDENT') NOT NULL,
+    security_version INT NOT NULL DEFAULT 0,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
 );
@@ -26,6 +27,9 @@ CREATE TABLE courses (
     FOREIGN KEY (instructor_id) REFERENCES users(id)
 );
 
+-- Supports keyset pagination of the catalog in (title, id) order
+CREATE INDEX idx_courses_title_id ON courses (title, id);
+
 -- Enrollments table
 CREATE TABLE enrollments (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -41,6 +45,13 @@ CREATE TABLE enrollments (
     UNIQUE KEY unique_enrollment (student_id, course_id)
 );
 
+-- Seat counter per course, reserved with one conditional update (see CourseSeatService)
+CREATE TABLE course_seats (
+    course_id BIGINT PRIMARY KEY,
+    capacity INT NOT NULL,
+    taken INT NOT NULL DEFAULT 0
+);
+
 -- Course Materials table
 CREATE TABLE course_materials (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -67,6 +78,9 @@ CREATE TABLE assignments (
     FOREIGN KEY (course_id) REFERENCES courses(id)
 );
 
+-- Supports keyset pagination of a course's assignments in (due_date, id) order
+CREATE INDEX idx_assignments_course_due ON assignments (course_id, due_date, id);
+
 -- Assignment Submissions table
 CREATE TABLE assignment_submissions (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -74,6 +88,7 @@ CREATE TABLE assignment_submissions (
     student_id BIGINT NOT NULL,
     submission_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     file_url VARCHAR(255),
+    content_hash CHAR(64),
     score DECIMAL(5,2),
     feedback TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
@@ -82,3 +97,36 @@ CREATE TABLE assignment_submissions (
     FOREIGN KEY (student_id) REFERENCES users(id),
     UNIQUE KEY unique_submission (assignment_id, student_id)
 );
+
+-- Supports the streamed submission history, newest first in (submission_date, id) order
+CREATE INDEX idx_submissions_student_date ON assignment_submissions (student_id, submission_date, id);
+
+-- Content-addressed upload blobs and the number of submissions referring to each
+CREATE TABLE stored_blobs (
+    sha256 CHAR(64) PRIMARY KEY,
+    size BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Running statistics per course, assignment and student (see StatisticsService)
+CREATE TABLE statistics_summary (
+    scope ENUM('COURSE', 'ASSIGNMENT', 'STUDENT') NOT NULL,
+    scope_id BIGINT NOT NULL,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    graded_count BIGINT NOT NULL DEFAULT 0,
+    score_sum DECIMAL(19,2) NOT NULL DEFAULT 0,
+    min_score DECIMAL(5,2),
+    max_score DECIMAL(5,2),
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (scope, scope_id)
+);
+
+-- ID blocks for the pooled-lo generators (see IdBlockAligner). Each row holds
+-- the first id of the next unallocated block of 50.
+CREATE TABLE users_seq (next_val BIGINT NOT NULL);
+CREATE TABLE courses_seq (next_val BIGINT NOT NULL);
+CREATE TABLE enrollments_seq (next_val BIGINT NOT NULL);
+CREATE TABLE assignments_seq (next_val BIGINT NOT NULL);
+CREATE TABLE assignment_submissions_seq (next_val BIGINT NOT NULL);
+CREATE TABLE books_seq (next_val BIGINT NOT NULL);
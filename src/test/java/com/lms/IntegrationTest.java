@@ -0,0 +1,114 @@
+package com.lms;
+
+import com.lms.model.Assignment;
+import com.lms.model.Course;
+import com.lms.model.User;
+import com.lms.repository.AssignmentRepository;
+import com.lms.repository.CourseRepository;
+import com.lms.repository.UserRepository;
+import com.lms.service.EmailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base for tests that need the full application against a real MySQL server.
+ * One container is shared by every subclass for the whole run; tests create
+ * their own rows with unique keys instead of relying on a clean database.
+ * Mail is mocked out, since EmailService sends on the calling thread.
+ */
+@SpringBootTest
+public abstract class IntegrationTest {
+
+    protected static final MySQLContainer<?> PRIMARY = new MySQLContainer<>("mysql:8.0")
+        .withDatabaseName("lms_db")
+        .withUrlParam("rewriteBatchedStatements", "true");
+
+    protected static final Path UPLOAD_DIR;
+
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() % 1_000_000_000L);
+
+    static {
+        PRIMARY.start();
+        try {
+            UPLOAD_DIR = Files.createTempDirectory("lms-uploads");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("spring.jpa.show-sql", () -> "false");
+        registry.add("file.upload-dir", UPLOAD_DIR::toString);
+    }
+
+    @MockBean
+    protected EmailService emailService;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected CourseRepository courseRepository;
+
+    @Autowired
+    protected AssignmentRepository assignmentRepository;
+
+    protected static String unique(String prefix) {
+        return prefix + Long.toString(SEQUENCE.incrementAndGet(), 36);
+    }
+
+    protected User createUser(User.Role role) {
+        return userRepository.save(newUser(role));
+    }
+
+    // Unsaved, for tests that insert users in bulk
+    protected static User newUser(User.Role role) {
+        String username = unique(role.name().toLowerCase());
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setFirstName("Test");
+        user.setLastName(role.name().charAt(0) + role.name().substring(1).toLowerCase());
+        user.setRole(role);
+        return user;
+    }
+
+    protected Course createCourse(User instructor, int maxStudents) {
+        Course course = new Course();
+        course.setCode(unique("T"));
+        course.setTitle("Test course " + course.getCode());
+        course.setInstructor(instructor);
+        course.setMaxStudents(maxStudents);
+        course.setStartDate(LocalDate.now());
+        course.setEndDate(LocalDate.now().plusMonths(4));
+        return courseRepository.save(course);
+    }
+
+    protected Assignment createAssignment(Course course) {
+        Assignment assignment = new Assignment();
+        assignment.setCourse(course);
+        assignment.setTitle(unique("Assignment "));
+        assignment.setDescription("Test assignment");
+        assignment.setDueDate(LocalDateTime.now().plusWeeks(2));
+        assignment.setTotalPoints(new BigDecimal("100"));
+        return assignmentRepository.save(assignment);
+    }
+}
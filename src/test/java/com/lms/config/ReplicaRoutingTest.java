@@ -0,0 +1,189 @@
+package com.lms.config;
+
+import com.lms.IntegrationTest;
+import com.lms.model.Course;
+import com.lms.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two independent MySQL instances. The "replica" is never
+ * replicated to; the test copies rows over by hand and then changes the
+ * primary, which looks exactly like a replica that has fallen behind.
+ */
+class ReplicaRoutingTest extends IntegrationTest {
+
+    static final MySQLContainer<?> REPLICA = new MySQLContainer<>("mysql:8.0")
+        .withDatabaseName("lms_db");
+
+    static {
+        REPLICA.start();
+    }
+
+    @DynamicPropertySource
+    static void replicaProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.replica.url", REPLICA::getJdbcUrl);
+        registry.add("spring.datasource.replica.username", REPLICA::getUsername);
+        registry.add("spring.datasource.replica.password", REPLICA::getPassword);
+        // Route to the replica even before (or without) a passing health check
+        registry.add("spring.datasource.replica.fallback-to-primary", () -> "false");
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void readOnlyTransactionsReadFromTheReplica() throws SQLException {
+        Long courseId = createCourse("RR-ROUTE", "Original title");
+        copyToReplica();
+        renameOnPrimary(courseId, "Renamed on primary");
+
+        assertThat(readOnly(() -> findCourse(courseId).getTitle())).isEqualTo("Original title");
+        assertThat(readWrite(() -> findCourse(courseId).getTitle())).isEqualTo("Renamed on primary");
+    }
+
+    @Test
+    void replicaReadsDoNotPopulateTheSecondLevelCache() throws SQLException {
+        Long courseId = createCourse("RR-CACHE", "Original title");
+        copyToReplica();
+        renameOnPrimary(courseId, "Renamed on primary");
+        entityManagerFactory.getCache().evict(Course.class);
+
+        assertThat(readOnly(() -> findCourse(courseId).getTitle())).isEqualTo("Original title");
+        assertThat(entityManagerFactory.getCache().contains(Course.class, courseId)).isFalse();
+
+        // A primary read still caches, and read-only sessions may then read that entry
+        assertThat(readWrite(() -> findCourse(courseId).getTitle())).isEqualTo("Renamed on primary");
+        assertThat(entityManagerFactory.getCache().contains(Course.class, courseId)).isTrue();
+        assertThat(readOnly(() -> findCourse(courseId).getTitle())).isEqualTo("Renamed on primary");
+    }
+
+    private Long createCourse(String code, String title) {
+        String suffix = Long.toString(System.nanoTime());
+        return readWrite(() -> {
+            User instructor = new User();
+            instructor.setUsername("inst" + suffix);
+            instructor.setEmail("inst" + suffix + "@example.com");
+            instructor.setPassword("x");
+            instructor.setFirstName("Ina");
+            instructor.setLastName("Structor");
+            instructor.setRole(User.Role.INSTRUCTOR);
+            entityManager.persist(instructor);
+
+            Course course = new Course();
+            course.setCode(code + suffix.substring(suffix.length() - 6));
+            course.setTitle(title);
+            course.setInstructor(instructor);
+            course.setMaxStudents(30);
+            course.setStartDate(LocalDate.now());
+            course.setEndDate(LocalDate.now().plusMonths(3));
+            entityManager.persist(course);
+            return course.getId();
+        });
+    }
+
+    // Bulk JPQL update: bypasses the entity region and evicts it, like a write on another node
+    private void renameOnPrimary(Long courseId, String title) {
+        readWrite(() -> entityManager.createQuery("UPDATE Course c SET c.title = :title WHERE c.id = :id")
+            .setParameter("title", title)
+            .setParameter("id", courseId)
+            .executeUpdate());
+    }
+
+    private Course findCourse(Long id) {
+        return entityManager.find(Course.class, id);
+    }
+
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> work.get());
+    }
+
+    private <T> T readWrite(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private void copyToReplica() throws SQLException {
+        try (Connection primary = DriverManager.getConnection(
+                 PRIMARY.getJdbcUrl(), PRIMARY.getUsername(), PRIMARY.getPassword());
+             Connection replica = DriverManager.getConnection(
+                 REPLICA.getJdbcUrl(), REPLICA.getUsername(), REPLICA.getPassword());
+             Statement replicaStatement = replica.createStatement()) {
+            List<String> tables = tables(primary);
+            replicaStatement.execute("SET FOREIGN_KEY_CHECKS = 0");
+            for (String table : tables) {
+                replicaStatement.execute("DROP TABLE IF EXISTS `" + table + "`");
+                replicaStatement.execute(createStatement(primary, table));
+                copyRows(primary, replica, table);
+            }
+            replicaStatement.execute("SET FOREIGN_KEY_CHECKS = 1");
+        }
+    }
+
+    private static List<String> tables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW TABLES")) {
+            while (rs.next()) {
+                tables.add(rs.getString(1));
+            }
+        }
+        return tables;
+    }
+
+    private static String createStatement(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW CREATE TABLE `" + table + "`")) {
+            rs.next();
+            return rs.getString(2);
+        }
+    }
+
+    private static void copyRows(Connection from, Connection to, String table) throws SQLException {
+        try (Statement select = from.createStatement();
+             ResultSet rs = select.executeQuery("SELECT * FROM `" + table + "`")) {
+            ResultSetMetaData meta = rs.getMetaData();
+            int columns = meta.getColumnCount();
+            String placeholders = String.join(",", Collections.nCopies(columns, "?"));
+            try (PreparedStatement insert = to.prepareStatement(
+                     "INSERT INTO `" + table + "` VALUES (" + placeholders + ")")) {
+                while (rs.next()) {
+                    for (int i = 1; i <= columns; i++) {
+                        insert.setObject(i, rs.getObject(i));
+                    }
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.lms.dto;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lms.IntegrationTest;
+import com.lms.config.SqlStatementStats;
+import com.lms.model.Assignment;
+import com.lms.model.Course;
+import com.lms.model.Submission;
+import com.lms.model.User;
+import com.lms.repository.SubmissionRepository;
+import com.lms.service.AssignmentService;
+import com.lms.service.CourseService;
+import com.lms.service.StatisticsService;
+import com.lms.service.SubmissionService;
+import com.lms.service.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Serializes what each read endpoint returns the way the controller would:
+ * after the service call, with no transaction or EntityManager open
+ * (open-in-view is off). Serialization must issue no SQL, and no payload may
+ * carry the password hash or an entity collection. Payload size and median
+ * serialization time per endpoint are logged; the entity the user endpoint
+ * used to return is kept as the baseline, and it cannot be serialized at all.
+ */
+class ResponseSerializationTest extends IntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResponseSerializationTest.class);
+
+    private static final Set<String> FORBIDDEN_FIELDS = Set.of("password", "coursesTeaching", "enrollments",
+        "submissions", "assignments", "instructor", "hibernateLazyInitializer");
+    private static final int WARMUP_RUNS = 50;
+    private static final int TIMED_RUNS = 201;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private AssignmentService assignmentService;
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void responsesSerializeWithoutThePersistenceContext() throws Exception {
+        User instructor = createUser(User.Role.INSTRUCTOR);
+        User student = createUser(User.Role.STUDENT);
+        User other = createUser(User.Role.STUDENT);
+        Course course = createCourse(instructor, 10);
+        courseService.enrollStudent(course.getId(), student);
+        courseService.enrollStudent(course.getId(), other);
+        Assignment assignment = createAssignment(course);
+        Long graded = submit(assignment, student);
+        submit(assignment, other);
+        SubmissionView gradedView = submissionService.gradeSubmission(graded, new BigDecimal("85"), "Good");
+
+        PageRequest page = PageRequest.of(0, 20);
+        Map<String, Object> responses = new LinkedHashMap<>();
+        responses.put("GET /api/users/{id}",
+            UserSummary.from(userService.findById(student.getId()).orElseThrow()));
+        responses.put("GET /api/users", userService.findAll(page));
+        responses.put("GET /api/courses", courseService.searchCourses("", page));
+        responses.put("GET /api/courses/scroll", courseService.scrollCourses(null, 20));
+        responses.put("GET /api/courses/{id}/enrollments",
+            courseService.getCourseEnrollments(course.getId(), page));
+        responses.put("GET /api/courses/{id}/assignments",
+            assignmentService.getCourseAssignments(course.getId(), page));
+        responses.put("GET /api/assignments/{id}/submissions/pending",
+            submissionService.getPendingGradingByInstructor(instructor));
+        responses.put("PUT /api/assignments/{id}/submissions/{id}/grade", gradedView);
+
+        assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+        assertThat(TransactionSynchronizationManager.hasResource(entityManagerFactory)).isFalse();
+
+        for (Map.Entry<String, Object> response : responses.entrySet()) {
+            byte[] json = serializeWithoutSql(response.getValue());
+            assertThat(fieldNames(objectMapper.readTree(json))).as(response.getKey())
+                .doesNotContainAnyElementsOf(FORBIDDEN_FIELDS);
+            logger.info("{}: {} bytes, {} µs to serialize", response.getKey(), json.length,
+                TimeUnit.NANOSECONDS.toMicros(medianNanos(() -> serialize(response.getValue()))));
+        }
+
+        // Before: the detached entity's lazy collections cannot be read once the session has closed
+        User entity = userService.findById(student.getId()).orElseThrow();
+        assertThatThrownBy(() -> objectMapper.writeValueAsBytes(entity)).isInstanceOf(JsonMappingException.class);
+    }
+
+    private byte[] serializeWithoutSql(Object response) {
+        SqlStatementStats stats = SqlStatementStats.start();
+        byte[] json;
+        try {
+            json = serialize(response);
+        } finally {
+            stats.stop();
+        }
+        stats.expectAtMost(0);
+        return json;
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize " + response.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static Set<String> fieldNames(JsonNode node) {
+        Set<String> names = new HashSet<>();
+        collectFieldNames(node, names);
+        return names;
+    }
+
+    private static void collectFieldNames(JsonNode node, Set<String> names) {
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            names.add(field.getKey());
+            collectFieldNames(field.getValue(), names);
+        }
+        if (node.isArray()) {
+            node.elements().forEachRemaining(element -> collectFieldNames(element, names));
+        }
+    }
+
+    private static long medianNanos(Supplier<?> serialization) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            serialization.get();
+        }
+        long[] runs = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            serialization.get();
+            runs[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(runs);
+        return runs[TIMED_RUNS / 2];
+    }
+
+    private Long submit(Assignment assignment, User submitter) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Submission submission = new Submission();
+            submission.setAssignment(assignment);
+            submission.setStudent(submitter);
+            submission.setSubmissionDate(LocalDateTime.now());
+            Long id = submissionRepository.save(submission).getId();
+            statisticsService.onSubmission(assignment.getId(), submitter.getId());
+            return id;
+        });
+    }
+}
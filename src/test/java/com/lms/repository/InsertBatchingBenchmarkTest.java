@@ -0,0 +1,148 @@
+package com.lms.repository;
+
+import com.lms.IntegrationTest;
+import com.lms.config.SqlStatementStats;
+import com.lms.model.Assignment;
+import com.lms.model.Course;
+import com.lms.model.Enrollment;
+import com.lms.model.Submission;
+import com.lms.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Before/after comparison for bulk inserts of enrollments and submissions:
+ * one flush per row (what an IDENTITY id forced) against saveAll, which the
+ * pooled id blocks let Hibernate send as JDBC batches of 50. Statement counts
+ * are asserted; timings are only logged, since they depend on the machine.
+ */
+class InsertBatchingBenchmarkTest extends IntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(InsertBatchingBenchmarkTest.class);
+
+    private static final int ROWS = 500;
+    // ROWS / batch_size insert batches, plus slack for fetching id blocks of 50
+    private static final int MAX_BATCHED_STATEMENTS = ROWS / 50 * 3 + 2;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User instructor;
+    private List<User> students;
+
+    @BeforeEach
+    void createStudents() {
+        instructor = createUser(User.Role.INSTRUCTOR);
+        List<User> newStudents = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            newStudents.add(newUser(User.Role.STUDENT));
+        }
+        students = userRepository.saveAll(newStudents);
+    }
+
+    @Test
+    void enrollmentInsertsAreBatched() {
+        Course perRowCourse = createCourse(instructor, ROWS);
+        Course batchedCourse = createCourse(instructor, ROWS);
+
+        SqlStatementStats perRow = insert(enrollmentRepository, enrollments(perRowCourse), true);
+        SqlStatementStats batched = insert(enrollmentRepository, enrollments(batchedCourse), false);
+        report("enrollments", perRow, batched);
+
+        assertThat(perRow.getStatements()).isGreaterThanOrEqualTo(ROWS);
+        batched.expectAtMost(MAX_BATCHED_STATEMENTS);
+        assertThat(countRows("enrollments", "course_id", perRowCourse.getId())).isEqualTo(ROWS);
+        assertThat(countRows("enrollments", "course_id", batchedCourse.getId())).isEqualTo(ROWS);
+    }
+
+    @Test
+    void submissionInsertsAreBatched() {
+        Course course = createCourse(instructor, ROWS);
+        Assignment perRowAssignment = createAssignment(course);
+        Assignment batchedAssignment = createAssignment(course);
+
+        SqlStatementStats perRow = insert(submissionRepository, submissions(perRowAssignment), true);
+        SqlStatementStats batched = insert(submissionRepository, submissions(batchedAssignment), false);
+        report("submissions", perRow, batched);
+
+        assertThat(perRow.getStatements()).isGreaterThanOrEqualTo(ROWS);
+        batched.expectAtMost(MAX_BATCHED_STATEMENTS);
+        assertThat(countRows("assignment_submissions", "assignment_id", perRowAssignment.getId())).isEqualTo(ROWS);
+        assertThat(countRows("assignment_submissions", "assignment_id", batchedAssignment.getId())).isEqualTo(ROWS);
+    }
+
+    // All rows in one transaction either way, so only the flushing differs
+    private <T> SqlStatementStats insert(JpaRepository<T, Long> repository, List<T> rows, boolean flushEachRow) {
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                if (flushEachRow) {
+                    rows.forEach(repository::saveAndFlush);
+                } else {
+                    repository.saveAll(rows);
+                }
+            });
+        } finally {
+            stats.stop();
+        }
+        return stats;
+    }
+
+    private List<Enrollment> enrollments(Course course) {
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (User student : students) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(student);
+            enrollment.setCourse(course);
+            enrollments.add(enrollment);
+        }
+        return enrollments;
+    }
+
+    private List<Submission> submissions(Assignment assignment) {
+        List<Submission> submissions = new ArrayList<>();
+        for (User student : students) {
+            Submission submission = new Submission();
+            submission.setAssignment(assignment);
+            submission.setStudent(student);
+            submission.setSubmissionDate(LocalDateTime.now());
+            submissions.add(submission);
+        }
+        return submissions;
+    }
+
+    private int countRows(String table, String column, Long id) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE " + column + " = ?",
+            Integer.class, id);
+    }
+
+    private static void report(String entity, SqlStatementStats perRow, SqlStatementStats batched) {
+        logger.info("{} {} inserts: per-row flush {} statements, {} ms in JDBC; saveAll {} statements, {} ms in JDBC",
+            ROWS, entity,
+            perRow.getStatements(), TimeUnit.NANOSECONDS.toMillis(perRow.getElapsedNanos()),
+            batched.getStatements(), TimeUnit.NANOSECONDS.toMillis(batched.getElapsedNanos()));
+    }
+}
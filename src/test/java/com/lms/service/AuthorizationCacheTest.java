@@ -0,0 +1,67 @@
+package com.lms.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorizationCacheTest {
+
+    private static final int MAX_USERS = 10;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void fullCacheEvictsTheLeastRecentlySeenUserOnly() {
+        AuthorizationCache cache = new AuthorizationCache(60_000, MAX_USERS);
+        for (long user = 1; user <= MAX_USERS; user++) {
+            check(cache, user);
+        }
+        // User 1 is seen again, which leaves user 2 as the least recently seen
+        check(cache, 1L);
+        assertThat(loads).hasValue(MAX_USERS);
+
+        check(cache, MAX_USERS + 1L);
+        assertThat(loads).hasValue(MAX_USERS + 1);
+
+        for (long user = 1; user <= MAX_USERS + 1; user++) {
+            if (user != 2) {
+                check(cache, user);
+            }
+        }
+        assertThat(loads).as("everyone but user 2 is still cached").hasValue(MAX_USERS + 1);
+        check(cache, 2L);
+        assertThat(loads).hasValue(MAX_USERS + 2);
+    }
+
+    @Test
+    void usersWithOnlyExpiredDecisionsAreEvictedFirst() throws Exception {
+        AuthorizationCache cache = new AuthorizationCache(200, MAX_USERS);
+        for (long user = 1; user < MAX_USERS; user++) {
+            check(cache, user);
+        }
+        Thread.sleep(300);
+        // A fresh decision for user 1 leaves users 2..9 with nothing live
+        loads.set(0);
+        check(cache, 1L);
+        long tenth = MAX_USERS;
+        long eleventh = MAX_USERS + 1;
+        check(cache, tenth);
+        check(cache, eleventh);
+        assertThat(loads).hasValue(3);
+
+        // Dropping the expired users made room, so no live user was shed with them
+        check(cache, 1L);
+        check(cache, tenth);
+        check(cache, eleventh);
+        assertThat(loads).hasValue(3);
+    }
+
+    private void check(AuthorizationCache cache, Long userId) {
+        cache.get(userId, "course", 7L, () -> {
+            loads.incrementAndGet();
+            return true;
+        });
+    }
+}
@@ -0,0 +1,149 @@
+package com.lms.service;
+
+import com.lms.IntegrationTest;
+import com.lms.dto.CourseView;
+import com.lms.dto.CursorSlice;
+import com.lms.model.Course;
+import com.lms.model.User;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Page 1 against page 10,000 of the catalog, read with OFFSET paging and with
+ * the (title, id) keyset. OFFSET has to walk past every skipped row, so its
+ * deep page slows down with the table; the keyset seeks through
+ * idx_courses_title_id and costs the same at any depth. Timings are medians of
+ * several runs and are logged; only the keyset's flatness and the index
+ * itself are asserted.
+ */
+class CatalogPaginationBenchmarkTest extends IntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogPaginationBenchmarkTest.class);
+
+    private static final int PAGE_SIZE = 10;
+    private static final int DEEP_PAGE = 10_000;
+    private static final int COURSES = PAGE_SIZE * DEEP_PAGE + PAGE_SIZE;
+    private static final int INSERT_CHUNK = 1_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int TIMED_RUNS = 15;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void keysetPagesCostTheSameAtAnyDepth() {
+        assertThat(indexColumns("courses", "idx_courses_title_id")).containsExactly("title", "id");
+        assertThat(indexColumns("assignments", "idx_assignments_course_due"))
+            .containsExactly("course_id", "due_date", "id");
+
+        seedCourses(createUser(User.Role.INSTRUCTOR));
+        String deepCursor = cursorBefore(DEEP_PAGE);
+        PageRequest firstOffsetPage = PageRequest.of(0, PAGE_SIZE, Sort.by("title", "id"));
+        PageRequest deepOffsetPage = PageRequest.of(DEEP_PAGE - 1, PAGE_SIZE, Sort.by("title", "id"));
+
+        // Both paths must return the same rows before their timings mean anything
+        List<CourseView> offsetRows = courseRepository.findViews(deepOffsetPage).getContent();
+        List<CourseView> keysetRows = courseService.scrollCourses(deepCursor, PAGE_SIZE).getContent();
+        assertThat(keysetRows).extracting(CourseView::getId)
+            .containsExactlyElementsOf(offsetRows.stream().map(CourseView::getId).toList());
+
+        long offsetFirst = medianNanos(() -> courseRepository.findViews(firstOffsetPage));
+        long offsetDeep = medianNanos(() -> courseRepository.findViews(deepOffsetPage));
+        long keysetFirst = medianNanos(() -> courseService.scrollCourses(null, PAGE_SIZE));
+        long keysetDeep = medianNanos(() -> courseService.scrollCourses(deepCursor, PAGE_SIZE));
+
+        logger.info("Catalog of {} courses, {} per page: OFFSET page 1 {} µs, page {} {} µs; "
+                + "keyset page 1 {} µs, page {} {} µs",
+            courseRepository.count(), PAGE_SIZE, micros(offsetFirst), DEEP_PAGE, micros(offsetDeep),
+            micros(keysetFirst), DEEP_PAGE, micros(keysetDeep));
+
+        // Generous bounds so a noisy machine does not fail the build, yet far below what a scan costs
+        assertThat(keysetDeep).isLessThan(keysetFirst * 3 + TimeUnit.MILLISECONDS.toNanos(2));
+        assertThat(keysetDeep).isLessThan(offsetDeep);
+    }
+
+    private void seedCourses(User instructor) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (int start = 0; start < COURSES; start += INSERT_CHUNK) {
+            int end = Math.min(start + INSERT_CHUNK, COURSES);
+            transaction.executeWithoutResult(status -> {
+                List<Course> chunk = new ArrayList<>();
+                for (int i = 0; i < end - start; i++) {
+                    Course course = new Course();
+                    course.setCode(unique("B"));
+                    course.setTitle("Benchmark course " + course.getCode());
+                    course.setInstructor(instructor);
+                    course.setMaxStudents(30);
+                    course.setStartDate(LocalDate.now());
+                    course.setEndDate(LocalDate.now().plusMonths(4));
+                    chunk.add(course);
+                }
+                courseRepository.saveAll(chunk);
+            });
+        }
+    }
+
+    // The cursor a client holds after reading every page before the given one
+    private String cursorBefore(int page) {
+        Map<String, Object> last = jdbcTemplate.queryForMap(
+            "SELECT title, id FROM courses ORDER BY title, id LIMIT 1 OFFSET ?", (page - 1) * PAGE_SIZE - 1);
+        return PageCursor.encode((String) last.get("title"), ((Number) last.get("id")).longValue());
+    }
+
+    private List<String> indexColumns(String table, String index) {
+        return jdbcTemplate.queryForList(
+            "SELECT column_name FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? ORDER BY seq_in_index",
+            String.class, table, index);
+    }
+
+    private static long medianNanos(Supplier<?> read) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            consume(read.get());
+        }
+        long[] runs = new long[TIMED_RUNS];
+        for (int i = 0; i < TIMED_RUNS; i++) {
+            long start = System.nanoTime();
+            consume(read.get());
+            runs[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(runs);
+        return runs[TIMED_RUNS / 2];
+    }
+
+    private static void consume(Object page) {
+        if (page instanceof Page<?> offset) {
+            assertThat(offset.getContent()).hasSize(PAGE_SIZE);
+        } else {
+            assertThat(((CursorSlice<?>) page).getContent()).hasSize(PAGE_SIZE);
+        }
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,145 @@
+package com.lms.service;
+
+import com.lms.IntegrationTest;
+import com.lms.model.Course;
+import com.lms.model.User;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CourseSeatReservationTest extends IntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(CourseSeatReservationTest.class);
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentEnrollmentsNeverOverbook() throws Exception {
+        int capacity = 5;
+        Course course = createSeatedCourse(capacity);
+
+        assertThat(rush(List.of(course), 60)).isEqualTo(capacity);
+
+        assertThat(activeEnrollments(course)).isEqualTo(capacity);
+        assertThat(seatsTaken(course)).isEqualTo(capacity);
+    }
+
+    // Seats are reserved per course row, so rushes on different courses should not serialize on each other
+    @Test
+    void registrationRushAcrossCoursesFillsEachExactly() throws Exception {
+        int capacity = 50;
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            courses.add(createSeatedCourse(capacity));
+        }
+
+        assertThat(rush(courses, 75)).isEqualTo(courses.size() * capacity);
+
+        for (Course course : courses) {
+            assertThat(activeEnrollments(course)).isEqualTo(capacity);
+            assertThat(seatsTaken(course)).isEqualTo(capacity);
+        }
+    }
+
+    private Course createSeatedCourse(int capacity) {
+        Course course = createCourse(createUser(User.Role.INSTRUCTOR), capacity);
+        jdbcTemplate.update("INSERT INTO course_seats (course_id, capacity, taken) VALUES (?, ?, 0)",
+            course.getId(), capacity);
+        return course;
+    }
+
+    // Releases every applicant at once and returns how many got a seat; only that phase is timed
+    private int rush(List<Course> courses, int applicantsPerCourse) throws Exception {
+        List<Course> targets = new ArrayList<>();
+        List<User> students = new ArrayList<>();
+        for (Course course : courses) {
+            for (int i = 0; i < applicantsPerCourse; i++) {
+                targets.add(course);
+                students.add(createUser(User.Role.STUDENT));
+            }
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Boolean>> attempts = new ArrayList<>();
+        try {
+            for (int i = 0; i < students.size(); i++) {
+                Long courseId = targets.get(i).getId();
+                User student = students.get(i);
+                attempts.add(pool.submit(() -> {
+                    go.await();
+                    try {
+                        courseService.enrollStudent(courseId, student);
+                        return true;
+                    } catch (RuntimeException e) {
+                        if ("Course is full".equals(e.getMessage())) {
+                            return false;
+                        }
+                        throw e;
+                    }
+                }));
+            }
+            long start = System.nanoTime();
+            go.countDown();
+
+            int enrolled = 0;
+            for (Future<Boolean> attempt : attempts) {
+                if (attempt.get(60, TimeUnit.SECONDS)) {
+                    enrolled++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            logger.info("{} attempts on {} course(s) from {} threads in {} ms: {} enrolled, {} enrollments/s, "
+                    + "{} attempts/s", attempts.size(), courses.size(), THREADS, Math.round(seconds * 1000),
+                enrolled, Math.round(enrolled / seconds), Math.round(attempts.size() / seconds));
+            return enrolled;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void lastSeatIsFreeWhenTheCounterIsSeededDuringEnrollment() {
+        Course course = createCourse(createUser(User.Role.INSTRUCTOR), 2);
+        courseService.enrollStudent(course.getId(), createUser(User.Role.STUDENT));
+        // As for a course created before seat tracking
+        jdbcTemplate.update("DELETE FROM course_seats WHERE course_id = ?", course.getId());
+
+        courseService.enrollStudent(course.getId(), createUser(User.Role.STUDENT));
+
+        assertThat(seatsTaken(course)).isEqualTo(2);
+        assertThatThrownBy(() -> courseService.enrollStudent(course.getId(), createUser(User.Role.STUDENT)))
+            .hasMessage("Course is full");
+        assertThat(activeEnrollments(course)).isEqualTo(2);
+    }
+
+    private int activeEnrollments(Course course) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollments WHERE course_id = ? AND status = 'ACTIVE'",
+            Integer.class, course.getId());
+    }
+
+    private int seatsTaken(Course course) {
+        return jdbcTemplate.queryForObject(
+            "SELECT taken FROM course_seats WHERE course_id = ?", Integer.class, course.getId());
+    }
+}
@@ -0,0 +1,153 @@
+package com.lms.service;
+
+import com.lms.IntegrationTest;
+import com.lms.config.SqlStatementStats;
+import com.lms.dto.UnavailableSection;
+import com.lms.model.Assignment;
+import com.lms.model.Course;
+import com.lms.model.Enrollment;
+import com.lms.model.Submission;
+import com.lms.model.User;
+import com.lms.repository.EnrollmentRepository;
+import com.lms.repository.SubmissionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins each dashboard to one statement per section however many courses,
+ * assignments and submissions are behind it. Statements are counted around
+ * the real service call; the sections run on the dashboard executor and are
+ * tracked through SqlStatementStats.propagate.
+ */
+// A cold container can be slow; a section that times out would hide its statement
+@TestPropertySource(properties = "dashboard.section-timeout=10000")
+class DashboardQueryCountTest extends IntegrationTest {
+
+    private static final int FEW_COURSES = 3;
+    private static final int MANY_COURSES = 30;
+    private static final int ASSIGNMENTS_PER_COURSE = 4;
+    private static final int STUDENTS = 6;
+    private static final int SECTIONS = 4;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private EnrollmentRepository enrollmentRepository;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private record Dataset(User instructor, User student, int courses) {
+    }
+
+    @Test
+    void instructorDashboardStatementsDoNotGrowWithCourses() {
+        Dataset few = createDataset(FEW_COURSES);
+        Dataset many = createDataset(MANY_COURSES);
+
+        int fewStatements = statementsFor(dashboardService::getInstructorDashboard, few.instructor().getId(),
+            dashboard -> assertThat((List<?>) dashboard.get("activeCourses")).hasSize(few.courses()));
+        int manyStatements = statementsFor(dashboardService::getInstructorDashboard, many.instructor().getId(),
+            dashboard -> assertThat((List<?>) dashboard.get("activeCourses")).hasSize(many.courses()));
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+    }
+
+    @Test
+    void studentDashboardStatementsDoNotGrowWithCourses() {
+        Dataset few = createDataset(FEW_COURSES);
+        Dataset many = createDataset(MANY_COURSES);
+
+        int fewStatements = statementsFor(dashboardService::getStudentDashboard, few.student().getId(),
+            dashboard -> assertThat((List<?>) dashboard.get("enrolledCourses")).hasSize(few.courses()));
+        int manyStatements = statementsFor(dashboardService::getStudentDashboard, many.student().getId(),
+            dashboard -> assertThat((List<?>) dashboard.get("enrolledCourses")).hasSize(many.courses()));
+
+        assertThat(manyStatements).isEqualTo(fewStatements);
+    }
+
+    private int statementsFor(Function<Long, Map<String, Object>> dashboardCall, Long userId,
+                              Consumer<Map<String, Object>> check) {
+        Map<String, Object> dashboard;
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            dashboard = dashboardCall.apply(userId);
+        } finally {
+            stats.stop();
+        }
+        assertThat(dashboard).hasSize(SECTIONS);
+        assertThat(dashboard.values()).noneMatch(UnavailableSection.class::isInstance);
+        check.accept(dashboard);
+        stats.expectAtMost(SECTIONS).expectNoRepeatsOver(1);
+        return stats.getStatements();
+    }
+
+    private Dataset createDataset(int courses) {
+        User instructor = createUser(User.Role.INSTRUCTOR);
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(createUser(User.Role.STUDENT));
+        }
+
+        // The statistics hooks only run inside a transaction
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int c = 0; c < courses; c++) {
+                createCourseWithWork(instructor, students);
+            }
+        });
+        return new Dataset(instructor, students.get(0), courses);
+    }
+
+    private void createCourseWithWork(User instructor, List<User> students) {
+        Course course = createCourse(instructor, STUDENTS);
+        List<Enrollment> enrollments = new ArrayList<>();
+        for (User enrolled : students) {
+            Enrollment enrollment = new Enrollment();
+            enrollment.setStudent(enrolled);
+            enrollment.setCourse(course);
+            enrollments.add(enrollment);
+        }
+        enrollmentRepository.saveAll(enrollments);
+        statisticsService.onEnrollmentsActivated(course.getId(), STUDENTS);
+
+        for (int a = 0; a < ASSIGNMENTS_PER_COURSE; a++) {
+            Assignment assignment = createAssignment(course);
+            // Every other submission graded, so both grade and pending sections have rows
+            submit(assignment, students.get(0), a % 2 == 0 ? new BigDecimal("80") : null);
+            submit(assignment, students.get(1), null);
+        }
+    }
+
+    private void submit(Assignment assignment, User submitter, BigDecimal score) {
+        Submission submission = new Submission();
+        submission.setAssignment(assignment);
+        submission.setStudent(submitter);
+        submission.setSubmissionDate(LocalDateTime.now());
+        submission.setScore(score);
+        submissionRepository.save(submission);
+        statisticsService.onSubmission(assignment.getId(), submitter.getId());
+        if (score != null) {
+            statisticsService.onGraded(assignment.getId(), submitter.getId(), null, score);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.lms.service;
+
+import com.lms.dto.UserSummary;
+import com.lms.model.Course;
+import com.lms.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.IContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailServiceTest {
+
+    @Test
+    void confirmationsThatDoNotFitInTheQueueAreCountedAsDropped() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TemplateEngine templateEngine = mock(TemplateEngine.class);
+        when(templateEngine.process(anyString(), any(IContext.class))).thenAnswer(invocation -> {
+            sending.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return "<p>Enrolled</p>";
+        });
+        JavaMailSender mailSender = mock(JavaMailSender.class);
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        EmailService emailService = new EmailService(mailSender, templateEngine, meterRegistry, 1);
+
+        Course course = new Course();
+        course.setCode("CS101");
+        course.setTitle("Introduction to Computing");
+        course.setStartDate(LocalDate.now());
+        try {
+            // The sender thread is held by the first batch and the one queue slot by the second
+            assertThat(emailService.queueEnrollmentConfirmations(students(1), course)).isZero();
+            assertThat(sending.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(emailService.queueEnrollmentConfirmations(students(2), course)).isZero();
+
+            assertThat(emailService.queueEnrollmentConfirmations(students(3), course)).isEqualTo(3);
+            assertThat(emailService.queueEnrollmentConfirmations(List.of(), course)).isZero();
+            assertThat(meterRegistry.counter("lms.email.bulk.dropped").count()).isEqualTo(3.0);
+        } finally {
+            release.countDown();
+            emailService.shutdown();
+        }
+    }
+
+    private static List<UserSummary> students(int count) {
+        List<UserSummary> students = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            students.add(new UserSummary((long) i, "student" + i, "student" + i + "@example.com",
+                "Test", "Student", User.Role.STUDENT));
+        }
+        return students;
+    }
+}
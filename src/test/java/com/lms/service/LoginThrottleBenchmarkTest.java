@@ -0,0 +1,118 @@
+package com.lms.service;
+
+import com.lms.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of LoginThrottle.checkLoginAttempt from many threads at once, with
+ * the production limits. A hot key is one account hammered from one address, so
+ * nearly every check is a rejection on a contended bucket; distinct keys are a
+ * spray across accounts and addresses, so every check creates a bucket and the
+ * map fills past max-entries and has to shed. Both must sustain well over
+ * 100,000 checks per second. Figures are logged.
+ */
+class LoginThrottleBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleBenchmarkTest.class);
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int CHECKS_PER_THREAD = 200_000;
+    private static final int MAX_ENTRIES = 100_000;
+    private static final double MIN_CHECKS_PER_SECOND = 100_000;
+
+    @Test
+    void hotKeySustainsOverAHundredThousandChecksPerSecond() throws Exception {
+        LoginThrottle throttle = newThrottle();
+        Outcome outcome = run(throttle, (thread, i) -> "victim", (thread, i) -> "203.0.113.7");
+        logger.info("Login throttle, hot key: {} checks/s on {} threads, {} allowed, {} rejected",
+            Math.round(outcome.perSecond()), THREADS, outcome.allowed(), outcome.rejected());
+
+        // Only the username's five tokens are granted; the run is far shorter than its 12 s refill
+        assertThat(outcome.allowed()).isLessThanOrEqualTo(5);
+        assertThat(outcome.perSecond()).isGreaterThan(MIN_CHECKS_PER_SECOND);
+    }
+
+    @Test
+    void distinctKeysSustainOverAHundredThousandChecksPerSecond() throws Exception {
+        LoginThrottle throttle = newThrottle();
+        Outcome outcome = run(throttle,
+            (thread, i) -> "user-" + thread + "-" + i,
+            (thread, i) -> "10." + thread + "." + (i >>> 8 & 0xFF) + "." + (i & 0xFF));
+        logger.info("Login throttle, distinct keys: {} checks/s on {} threads, {} allowed, {} rejected",
+            Math.round(outcome.perSecond()), THREADS, outcome.allowed(), outcome.rejected());
+
+        // Every username is new and no address comes round more than four times
+        assertThat(outcome.rejected()).isZero();
+        assertThat(outcome.perSecond()).isGreaterThan(MIN_CHECKS_PER_SECOND);
+    }
+
+    private static LoginThrottle newThrottle() {
+        return new LoginThrottle(true, 5, 5, 100, 60, MAX_ENTRIES);
+    }
+
+    private interface Key {
+        String of(int thread, int attempt);
+    }
+
+    private record Outcome(long allowed, long rejected, long elapsedNanos) {
+        double perSecond() {
+            return (allowed + rejected) / (elapsedNanos / 1e9);
+        }
+    }
+
+    // Keys are built before the clock starts so only the checks are timed
+    private static Outcome run(LoginThrottle throttle, Key username, Key clientIp) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch ready = new CountDownLatch(THREADS);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    String[] usernames = new String[CHECKS_PER_THREAD];
+                    String[] addresses = new String[CHECKS_PER_THREAD];
+                    for (int i = 0; i < CHECKS_PER_THREAD; i++) {
+                        usernames[i] = username.of(thread, i);
+                        addresses[i] = clientIp.of(thread, i);
+                    }
+                    ready.countDown();
+                    start.await();
+                    long allowed = 0;
+                    for (int i = 0; i < CHECKS_PER_THREAD; i++) {
+                        try {
+                            throttle.checkLoginAttempt(usernames[i], addresses[i]);
+                            allowed++;
+                        } catch (TooManyRequestsException e) {
+                            // Rejections are what a hot key is expected to produce
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            ready.await();
+            long begin = System.nanoTime();
+            start.countDown();
+            long allowed = 0;
+            for (Future<Long> result : results) {
+                allowed += result.get(5, TimeUnit.MINUTES);
+            }
+            long elapsed = System.nanoTime() - begin;
+            return new Outcome(allowed, (long) THREADS * CHECKS_PER_THREAD - allowed, elapsed);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
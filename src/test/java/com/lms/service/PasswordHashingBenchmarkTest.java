@@ -0,0 +1,97 @@
+package com.lms.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * What each BCrypt cost factor costs a login: the latency of one password
+ * check, and how many checks per second the hashing pool sustains when every
+ * pool thread is busy. Each step of the cost doubles the work, so the figures
+ * are what password.bcrypt.strength trades against. Timings are logged; only
+ * the growth between costs is asserted.
+ */
+class PasswordHashingBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingBenchmarkTest.class);
+
+    private static final int[] COSTS = {8, 10, 12};
+    private static final String PASSWORD = "correct horse battery staple";
+    private static final int LATENCY_SAMPLES = 8;
+    private static final int CHECKS_PER_CALLER = 4;
+
+    @Test
+    void eachCostStepMultipliesTheWork() throws Exception {
+        int poolSize = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        long[] latencies = new long[COSTS.length];
+
+        for (int i = 0; i < COSTS.length; i++) {
+            int cost = COSTS[i];
+            PasswordHashingService hashing = new PasswordHashingService(new BCryptPasswordEncoder(cost),
+                new SimpleMeterRegistry(), cost, poolSize, 64, 60_000, 2);
+            try {
+                String hash = hashing.encode(PASSWORD);
+                assertThat(hashing.needsRehash(hash)).isFalse();
+
+                latencies[i] = medianMatchNanos(hashing, hash);
+                double perSecond = throughput(hashing, hash, poolSize);
+                logger.info("BCrypt cost {}: {} ms per check, {} checks/s on {} hashing threads",
+                    cost, TimeUnit.NANOSECONDS.toMillis(latencies[i]), String.format("%.1f", perSecond), poolSize);
+            } finally {
+                hashing.shutdown();
+            }
+        }
+
+        // Two cost steps are 4x the rounds; allow for timer noise on the cheapest one
+        for (int i = 1; i < COSTS.length; i++) {
+            assertThat(latencies[i]).isGreaterThan(latencies[i - 1] * 2);
+        }
+    }
+
+    private static long medianMatchNanos(PasswordHashingService hashing, String hash) {
+        hashing.matches(PASSWORD, hash);
+        long[] samples = new long[LATENCY_SAMPLES];
+        for (int i = 0; i < LATENCY_SAMPLES; i++) {
+            long start = System.nanoTime();
+            assertThat(hashing.matches(PASSWORD, hash)).isTrue();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[LATENCY_SAMPLES / 2];
+    }
+
+    // One caller per hashing thread keeps the pool saturated without overflowing its queue
+    private static double throughput(PasswordHashingService hashing, String hash, int poolSize) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(poolSize);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < poolSize; c++) {
+                results.add(callers.submit(() -> {
+                    for (int i = 0; i < CHECKS_PER_CALLER; i++) {
+                        assertThat(hashing.matches(PASSWORD, hash)).isTrue();
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            return poolSize * CHECKS_PER_CALLER / (elapsed / 1e9);
+        } finally {
+            callers.shutdown();
+        }
+    }
+}
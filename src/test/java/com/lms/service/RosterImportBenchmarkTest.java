@@ -0,0 +1,83 @@
+package com.lms.service;
+
+import com.lms.IntegrationTest;
+import com.lms.config.SqlStatementStats;
+import com.lms.dto.RosterEntry;
+import com.lms.dto.RosterImportResult;
+import com.lms.dto.RosterRowResult;
+import com.lms.model.Course;
+import com.lms.model.User;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports a 10,000-student CSV roster through RosterImportService and reports
+ * how long it took and how many statements it ran. The import should take
+ * seconds and a few hundred statements, where enrolling one student per
+ * request took tens of minutes. EmailService is mocked, so no confirmations
+ * are dropped here; see EmailServiceTest for that.
+ */
+class RosterImportBenchmarkTest extends IntegrationTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(RosterImportBenchmarkTest.class);
+
+    private static final int STUDENTS = 10_000;
+    // Insert batches of 50 and their id blocks, as in InsertBatchingBenchmarkTest, plus the lookups
+    private static final int MAX_STATEMENTS = STUDENTS / 50 * 3 + 50;
+    private static final long MAX_SECONDS = 60;
+
+    @Autowired
+    private RosterImportService rosterImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void tenThousandRowRosterImportsInSeconds() {
+        User instructor = createUser(User.Role.INSTRUCTOR);
+        Course course = createCourse(instructor, STUDENTS);
+        List<User> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(newUser(User.Role.STUDENT));
+        }
+        StringBuilder csv = new StringBuilder("username,email\n");
+        for (User student : userRepository.saveAll(students)) {
+            csv.append(student.getUsername()).append(",\n");
+        }
+        List<RosterEntry> roster = rosterImportService.parseCsv(csv.toString());
+
+        RosterImportResult result;
+        SqlStatementStats stats = SqlStatementStats.start();
+        long start = System.nanoTime();
+        try {
+            result = rosterImportService.importRoster(course.getId(), roster, instructor);
+        } finally {
+            stats.stop();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        logger.info("Imported a {}-row roster in {} ms: {} statements, {} ms in JDBC",
+            roster.size(), elapsedMillis, stats.getStatements(),
+            TimeUnit.NANOSECONDS.toMillis(stats.getElapsedNanos()));
+
+        assertThat(result.getTotalRows()).isEqualTo(STUDENTS);
+        assertThat(result.getEnrolled()).isEqualTo(STUDENTS);
+        assertThat(result.getSkipped()).isZero();
+        assertThat(result.getRows()).extracting(RosterRowResult::getStatus)
+            .containsOnly(RosterRowResult.Status.ENROLLED);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM enrollments WHERE course_id = ? AND status = 'ACTIVE'",
+            Integer.class, course.getId())).isEqualTo(STUDENTS);
+
+        stats.expectAtMost(MAX_STATEMENTS);
+        assertThat(elapsedMillis).isLessThan(TimeUnit.SECONDS.toMillis(MAX_SECONDS));
+    }
+}
@@ -0,0 +1,162 @@
+package com.lms.service;
+
+import com.lms.IntegrationTest;
+import com.lms.config.SqlStatementStats;
+import com.lms.dto.BookView;
+import com.lms.model.Book;
+import com.lms.model.Course;
+import com.lms.model.User;
+import com.lms.repository.BookRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Course, User and Book are read through the second-level cache (and courses
+ * by code and users by username through the query cache). Writes made through
+ * the services must be visible to the next transaction, never a stale cached
+ * copy.
+ */
+class SecondLevelCacheTest extends IntegrationTest {
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void cachedCourseReadsDoNotHitTheDatabase() {
+        Course course = createCourse(createUser(User.Role.INSTRUCTOR), 30);
+        readCourse(course.getId());
+        assertThat(entityManagerFactory.getCache().contains(Course.class, course.getId())).isTrue();
+
+        SqlStatementStats stats = SqlStatementStats.start();
+        try {
+            assertThat(readCourse(course.getId()).getTitle()).isEqualTo(course.getTitle());
+        } finally {
+            stats.stop();
+        }
+        stats.expectAtMost(0);
+    }
+
+    @Test
+    void courseUpdateIsVisibleAfterCommit() {
+        Course course = createCourse(createUser(User.Role.INSTRUCTOR), 30);
+        readCourse(course.getId());
+        courseRepository.findByCode(course.getCode()).orElseThrow();
+
+        Course details = new Course();
+        details.setTitle("Renamed " + course.getCode());
+        details.setDescription("Updated description");
+        details.setStartDate(LocalDate.now().minusDays(1));
+        details.setEndDate(LocalDate.now().plusMonths(6));
+        details.setMaxStudents(45);
+        courseService.updateCourse(course.getId(), details);
+
+        Course reread = readCourse(course.getId());
+        assertThat(reread.getTitle()).isEqualTo(details.getTitle());
+        assertThat(reread.getDescription()).isEqualTo("Updated description");
+        assertThat(reread.getMaxStudents()).isEqualTo(45);
+        assertThat(courseRepository.findByCode(course.getCode()).orElseThrow().getTitle())
+            .isEqualTo(details.getTitle());
+    }
+
+    @Test
+    void userUpdateIsVisibleByIdAndByUsername() {
+        User user = createUser(User.Role.STUDENT);
+        readUser(user.getId());
+        userRepository.findByUsername(user.getUsername()).orElseThrow();
+
+        User changed = readUser(user.getId());
+        changed.setFirstName("Renamed");
+        userService.updateUser(changed);
+
+        assertThat(readUser(user.getId()).getFirstName()).isEqualTo("Renamed");
+        assertThat(userRepository.findByUsername(user.getUsername()).orElseThrow().getFirstName())
+            .isEqualTo("Renamed");
+    }
+
+    @Test
+    void roleChangeIsVisibleByIdAndByUsername() {
+        User user = createUser(User.Role.STUDENT);
+        readUser(user.getId());
+        userRepository.findByUsername(user.getUsername()).orElseThrow();
+
+        userService.updateUserRole(user.getId(), User.Role.INSTRUCTOR);
+
+        assertThat(readUser(user.getId()).getRole()).isEqualTo(User.Role.INSTRUCTOR);
+        assertThat(userRepository.findByUsername(user.getUsername()).orElseThrow().getRole())
+            .isEqualTo(User.Role.INSTRUCTOR);
+    }
+
+    @Test
+    void bookUpdateIsVisibleAfterCommit() {
+        Book book = new Book();
+        book.setTitle("Original title");
+        book.setAuthor("Test Author");
+        book.setIsbn(unique("isbn-"));
+        book.setAvailableCopies(3);
+        book.setTotalCopies(3);
+        Long bookId = bookService.saveBook(book).getId();
+        readBook(bookId);
+        assertThat(entityManagerFactory.getCache().contains(Book.class, bookId)).isTrue();
+
+        Book changed = readBook(bookId);
+        changed.setTitle("Second edition");
+        changed.setAvailableCopies(1);
+        bookService.saveBook(changed);
+
+        Book reread = readBook(bookId);
+        assertThat(reread.getTitle()).isEqualTo("Second edition");
+        assertThat(reread.getAvailableCopies()).isEqualTo(1);
+        BookView view = bookService.getBookById(bookId).orElseThrow();
+        assertThat(view.getTitle()).isEqualTo("Second edition");
+        assertThat(view.getAvailableCopies()).isEqualTo(1);
+    }
+
+    @Test
+    void passwordChangeSeesTheCommittedHash() {
+        User user = new User();
+        user.setUsername(unique("pw"));
+        user.setEmail(user.getUsername() + "@example.com");
+        user.setPassword("first-secret");
+        user.setFirstName("Test");
+        user.setLastName("Password");
+        user.setRole(User.Role.STUDENT);
+        Long userId = userService.registerUser(user).getId();
+        readUser(userId);
+
+        // Each change compares against the stored hash; a stale cached one would reject the second
+        userService.updatePassword(userId, "first-secret", "second-secret");
+        userService.updatePassword(userId, "second-secret", "third-secret");
+
+        String username = readUser(userId).getUsername();
+        assertThat(userService.authenticateUser(username, "third-secret")).isNotBlank();
+    }
+
+    private Course readCourse(Long id) {
+        return courseRepository.findById(id).orElseThrow();
+    }
+
+    private User readUser(Long id) {
+        return userRepository.findById(id).orElseThrow();
+    }
+
+    private Book readBook(Long id) {
+        return bookRepository.findById(id).orElseThrow();
+    }
+}
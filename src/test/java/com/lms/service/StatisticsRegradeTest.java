@@ -0,0 +1,78 @@
+package com.lms.service;
+
+import com.lms.IntegrationTest;
+import com.lms.model.Assignment;
+import com.lms.model.StatisticsSummary;
+import com.lms.model.StatisticsSummary.Scope;
+import com.lms.model.Submission;
+import com.lms.model.User;
+import com.lms.repository.SubmissionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A regrade recomputes the assignment and student rows from
+ * assignment_submissions with a native statement, which must see the new
+ * score rather than the one still in the database before the flush.
+ */
+class StatisticsRegradeTest extends IntegrationTest {
+
+    @Autowired
+    private SubmissionService submissionService;
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private SubmissionRepository submissionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void regradeRecomputesTheSummaryFromTheNewScore() {
+        Assignment assignment = createAssignment(createCourse(createUser(User.Role.INSTRUCTOR), 10));
+        User first = createUser(User.Role.STUDENT);
+        User second = createUser(User.Role.STUDENT);
+        Long firstSubmission = submit(assignment, first);
+        Long secondSubmission = submit(assignment, second);
+
+        submissionService.gradeSubmission(firstSubmission, new BigDecimal("90"), "Good");
+        submissionService.gradeSubmission(secondSubmission, new BigDecimal("70"), "Fair");
+        // Lowers the maximum, which only a recompute can get right
+        submissionService.gradeSubmission(firstSubmission, new BigDecimal("50"), "Regraded");
+
+        StatisticsSummary byAssignment = statisticsService.find(Scope.ASSIGNMENT, assignment.getId()).orElseThrow();
+        assertThat(byAssignment.getItemCount()).isEqualTo(2);
+        assertThat(byAssignment.getGradedCount()).isEqualTo(2);
+        assertThat(byAssignment.getScoreSum()).isEqualByComparingTo("120");
+        assertThat(byAssignment.getMinScore()).isEqualByComparingTo("50");
+        assertThat(byAssignment.getMaxScore()).isEqualByComparingTo("70");
+        assertThat(byAssignment.getAverageScore()).isEqualTo(60.0);
+
+        StatisticsSummary byStudent = statisticsService.find(Scope.STUDENT, first.getId()).orElseThrow();
+        assertThat(byStudent.getGradedCount()).isEqualTo(1);
+        assertThat(byStudent.getScoreSum()).isEqualByComparingTo("50");
+        assertThat(byStudent.getMinScore()).isEqualByComparingTo("50");
+        assertThat(byStudent.getMaxScore()).isEqualByComparingTo("50");
+    }
+
+    private Long submit(Assignment assignment, User student) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Submission submission = new Submission();
+            submission.setAssignment(assignment);
+            submission.setStudent(student);
+            submission.setSubmissionDate(LocalDateTime.now());
+            Long id = submissionRepository.save(submission).getId();
+            statisticsService.onSubmission(assignment.getId(), student.getId());
+            return id;
+        });
+    }
+}
@@ -0,0 +1,103 @@
+package com.lms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cost of the revocation check JwtAuthenticationFilter makes on every
+ * authenticated request, with the store filled to its expected size. A token
+ * that was never revoked is almost always turned away by the Bloom filter; a
+ * revoked one pays for the filter plus one map probe. Both must stay well
+ * under a microsecond. Plain timing rather than JMH, so the bound is loose and
+ * the measured figures are logged.
+ */
+class TokenRevocationStoreBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationStoreBenchmarkTest.class);
+
+    private static final int REVOKED = 100_000;
+    private static final int LOOKUPS = 1_000_000;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final long MAX_NANOS_PER_CHECK = 1_000;
+
+    @TempDir
+    Path dataDir;
+
+    private TokenRevocationStore store;
+    private String[] revokedIds;
+    private String[] liveIds;
+
+    @BeforeEach
+    void fillStore() throws Exception {
+        store = new TokenRevocationStore(dataDir.resolve("revoked-tokens.bin").toString(), REVOKED);
+        store.load();
+        long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1);
+        revokedIds = new String[REVOKED];
+        for (int i = 0; i < REVOKED; i++) {
+            revokedIds[i] = UUID.randomUUID().toString();
+            store.revoke(revokedIds[i], expiresAt);
+        }
+        liveIds = new String[REVOKED];
+        for (int i = 0; i < REVOKED; i++) {
+            liveIds[i] = UUID.randomUUID().toString();
+        }
+    }
+
+    @AfterEach
+    void closeStore() throws Exception {
+        store.close();
+    }
+
+    @Test
+    void bloomFilterMissIsWellUnderAMicrosecond() {
+        long nanosPerCheck = nanosPerCheck(liveIds, false);
+        logger.info("Revocation check, token not revoked: {} ns per check", nanosPerCheck);
+
+        assertThat(nanosPerCheck).isLessThan(MAX_NANOS_PER_CHECK);
+    }
+
+    @Test
+    void revokedTokenIsWellUnderAMicrosecond() {
+        long nanosPerCheck = nanosPerCheck(revokedIds, true);
+        logger.info("Revocation check, token revoked: {} ns per check", nanosPerCheck);
+
+        assertThat(nanosPerCheck).isLessThan(MAX_NANOS_PER_CHECK);
+    }
+
+    // Warms the JIT first; the hit count is checked so the loop cannot be optimised away
+    private long nanosPerCheck(String[] ids, boolean revoked) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            countRevoked(ids);
+        }
+        long start = System.nanoTime();
+        int hits = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (store.isRevoked(ids[i % ids.length])) {
+                hits++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        assertThat(hits).isEqualTo(revoked ? LOOKUPS : 0);
+        return elapsed / LOOKUPS;
+    }
+
+    private int countRevoked(String[] ids) {
+        int hits = 0;
+        for (String id : ids) {
+            if (store.isRevoked(id)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+}